@@ -6,9 +6,13 @@ import static com.botsteve.mavendepsearcher.utils.FxUtils.showError;
 import static com.botsteve.mavendepsearcher.utils.ProxyUtil.getRepoNameFromUrl;
 import static com.botsteve.mavendepsearcher.utils.Utils.arePropertiesConfiguredAndValid;
 import static com.botsteve.mavendepsearcher.utils.Utils.collectLatestVersions;
+import static com.botsteve.mavendepsearcher.utils.Utils.getBooleanSetting;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -19,6 +23,7 @@ import javafx.scene.control.ToolBar;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 import lombok.Data;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
 import com.botsteve.mavendepsearcher.tasks.BuildRepositoriesTask;
 import com.botsteve.mavendepsearcher.tasks.DependencyDownloaderTask;
 import com.botsteve.mavendepsearcher.tasks.DependencyLoadingTask;
@@ -26,23 +31,30 @@ import com.botsteve.mavendepsearcher.tasks.DependencyLoadingTask;
 @Data
 public class ButtonsComponent {
 
+  public static final String GRADLE_LOCKFILE_REFINE = "GRADLE_LOCKFILE_REFINE";
   private static AtomicBoolean isDownloaded = new AtomicBoolean(false);
   private final javafx.beans.property.BooleanProperty isTaskRunning = new javafx.beans.property.SimpleBooleanProperty(false);
+  private final javafx.beans.property.BooleanProperty isBuildRunning = new javafx.beans.property.SimpleBooleanProperty(false);
+  private BuildRepositoriesTask runningBuild;
   private final TableViewComponent tableViewComponent;
 
   public ToolBar getToolBar(Stage primaryStage, ProgressBar progressBar, Label progressLabel) {
     var openButton = createOpenDirectoryButton(primaryStage, progressBar, progressLabel);
     var downloadButton = createDownloadSelectedButton(progressBar, progressLabel);
     var buildSelectedButton = createBuildSelectedButton(progressBar, progressLabel);
+    var cancelBuildButton = createCancelBuildButton();
     var buildAggregatedLicenseButton = createBuildAggregatedLicenseButton(progressBar, progressLabel);
     
     openButton.disableProperty().bind(isTaskRunning);
     downloadButton.disableProperty().bind(isTaskRunning);
     buildSelectedButton.disableProperty().bind(isTaskRunning);
+    cancelBuildButton.disableProperty().bind(isBuildRunning.not());
     buildAggregatedLicenseButton.disableProperty().bind(isTaskRunning);
     tableViewComponent.getCleanUpCheckBox().disableProperty().bind(isTaskRunning);
+    tableViewComponent.getSourcesOnlyCheckBox().disableProperty().bind(isTaskRunning);
+    tableViewComponent.getBuildModeComboBox().disableProperty().bind(isTaskRunning);
     
-    return new ToolBar(openButton, downloadButton, buildSelectedButton, buildAggregatedLicenseButton);
+    return new ToolBar(openButton, downloadButton, buildSelectedButton, cancelBuildButton, buildAggregatedLicenseButton);
   }
 
   public Button createBuildAggregatedLicenseButton(ProgressBar progressBar, Label progressLabel) {
@@ -51,6 +63,19 @@ public class ButtonsComponent {
     return buildButton;
   }
 
+  /**
+   * Cancels the running build; its build processes and their children are killed.
+   */
+  public Button createCancelBuildButton() {
+    Button cancelButton = new Button("Cancel Build");
+    cancelButton.setOnAction(event -> {
+      if (runningBuild != null) {
+        runningBuild.cancel();
+      }
+    });
+    return cancelButton;
+  }
+
   public Button createBuildSelectedButton(ProgressBar progressBar, Label progressLabel) {
     Button buildButton = new Button("Build Selected");
     buildButton.setOnAction(event -> {
@@ -58,9 +83,13 @@ public class ButtonsComponent {
         return;
       }
       isTaskRunning.set(true);
-      BuildRepositoriesTask task = new BuildRepositoriesTask(progressBar, progressLabel, tableViewComponent.getProjectName());
+      BuildRepositoriesTask task = new BuildRepositoriesTask(progressBar, progressLabel, tableViewComponent.getProjectName(),
+                                                             tableViewComponent.getBuildModeComboBox().getValue());
+      runningBuild = task;
+      isBuildRunning.set(true);
       task.setOnSucceeded(workerStateEvent -> {
         isTaskRunning.set(false);
+        isBuildRunning.set(false);
         var successfulBuiltReposToJavaVersion = task.getValue();
         tableViewComponent.getSelectedDependencies()
             .forEach(dependencyNode ->
@@ -72,8 +101,14 @@ public class ButtonsComponent {
         // simulating refresh
         tableViewComponent.updateTreeViewWithFilteredDependencies(tableViewComponent.getFilterInput().getText());
       });
-      task.setOnFailed(e -> isTaskRunning.set(false));
-      task.setOnCancelled(e -> isTaskRunning.set(false));
+      task.setOnFailed(e -> {
+        isTaskRunning.set(false);
+        isBuildRunning.set(false);
+      });
+      task.setOnCancelled(e -> {
+        isTaskRunning.set(false);
+        isBuildRunning.set(false);
+      });
       
       Thread buildThread = new Thread(task);
       progressBar.progressProperty().bind(task.progressProperty());
@@ -91,7 +126,8 @@ public class ButtonsComponent {
         return;
       }
       isTaskRunning.set(true);
-      DependencyDownloaderTask task = new DependencyDownloaderTask(urlToVersion, progressBar, progressLabel, tableViewComponent.getCleanUpCheckBox().isSelected(), tableViewComponent.getProjectName());
+      DependencyDownloaderTask task = new DependencyDownloaderTask(urlToVersion, progressBar, progressLabel, tableViewComponent.getCleanUpCheckBox().isSelected(), tableViewComponent.getProjectName(),
+                                                                   new HashSet<>(tableViewComponent.getSelectedDependencies()), tableViewComponent.getSourcesOnlyCheckBox().isSelected());
       task.setOnSucceeded(workerStateEvent -> {
         isTaskRunning.set(false);
         isDownloaded.set(true);
@@ -157,6 +193,13 @@ public class ButtonsComponent {
           tableViewComponent.setAllDependencies(FXCollections.observableSet(task.getValue()));
           tableViewComponent.updateTreeView(tableViewComponent.getAllDependencies());
           tableViewComponent.updateTreeViewWithFilteredDependencies(tableViewComponent.getFilterInput().getText());
+          if (task.getCacheSavedMillis() > 0) {
+            tableViewComponent.getProjectNameLabel().setText(String.format(
+                "%s (cached, saved %.1f s)", selectedDirectory.getName(), task.getCacheSavedMillis() / 1000.0));
+          }
+          if (task.isLoadedFromLockfiles() && getBooleanSetting(GRADLE_LOCKFILE_REFINE, true)) {
+            refineInBackground(selectedDirectory, progressBar, progressLabel);
+          }
         });
         task.setOnFailed(e -> isTaskRunning.set(false));
         task.setOnCancelled(e -> isTaskRunning.set(false));
@@ -169,6 +212,72 @@ public class ButtonsComponent {
   }
 
 
+  /**
+   * Re-runs the full Gradle analysis after a lockfile load and swaps the result in, keeping
+   * the user's selection and what downloads and builds have recorded meanwhile. The result is
+   * dropped if another project was opened meanwhile.
+   */
+  private void refineInBackground(File projectDirectory, ProgressBar progressBar, Label progressLabel) {
+    String projectName = projectDirectory.getName();
+    tableViewComponent.getProjectNameLabel().setText(projectName + " (from lockfiles, refining...)");
+    var refinementTask = new DependencyLoadingTask(projectDirectory.getPath(), progressBar, progressLabel,
+                                                   tableViewComponent.getTreeTableView(), true);
+    refinementTask.setOnSucceeded(workerStateEvent -> {
+      if (!projectName.equals(tableViewComponent.getProjectName())) {
+        return;
+      }
+      var refined = refinementTask.getValue();
+      carryOverState(tableViewComponent.getAllDependencies(), refined);
+      tableViewComponent.setSelectedDependencies(FXCollections.observableSet(new HashSet<>()));
+      tableViewComponent.setAllDependencies(FXCollections.observableSet(refined));
+      tableViewComponent.updateTreeViewWithFilteredDependencies(tableViewComponent.getFilterInput().getText());
+      tableViewComponent.getProjectNameLabel().setText(projectName);
+    });
+    refinementTask.setOnFailed(e -> {
+      if (projectName.equals(tableViewComponent.getProjectName())) {
+        tableViewComponent.getProjectNameLabel().setText(projectName + " (from lockfiles)");
+      }
+    });
+
+    Thread refinementThread = new Thread(refinementTask);
+    refinementThread.setDaemon(true);
+    refinementThread.start();
+  }
+
+  /**
+   * Copies the selection, checkout tag and build JDK of the displayed nodes onto the refined
+   * nodes equal to them by coordinates, at every level of the tree.
+   */
+  private static void carryOverState(Collection<DependencyNode> current, Collection<DependencyNode> refined) {
+    Map<DependencyNode, DependencyNode> byCoordinates = new HashMap<>();
+    collectByCoordinates(current, byCoordinates);
+    applyState(refined, byCoordinates);
+  }
+
+  private static void collectByCoordinates(Collection<DependencyNode> nodes, Map<DependencyNode, DependencyNode> byCoordinates) {
+    for (DependencyNode node : nodes) {
+      // A node occurring several times keeps the occurrence holding state
+      byCoordinates.merge(node, node, (kept, other) -> hasState(kept) ? kept : other);
+      if (node.getChildren() != null) collectByCoordinates(node.getChildren(), byCoordinates);
+    }
+  }
+
+  private static boolean hasState(DependencyNode node) {
+    return node.isSelected() || !node.getCheckoutTag().isEmpty() || !node.getBuildWith().isEmpty();
+  }
+
+  private static void applyState(Collection<DependencyNode> nodes, Map<DependencyNode, DependencyNode> byCoordinates) {
+    for (DependencyNode node : nodes) {
+      DependencyNode previous = byCoordinates.get(node);
+      if (previous != null) {
+        node.setSelected(previous.isSelected());
+        node.setCheckoutTag(previous.getCheckoutTag());
+        node.setBuildWith(previous.getBuildWith());
+      }
+      if (node.getChildren() != null) applyState(node.getChildren(), byCoordinates);
+    }
+  }
+
   private void reset() {
     tableViewComponent.getSelectAllCheckBox().setSelected(false);
     tableViewComponent.getFilterInput().setText("");
@@ -27,6 +27,13 @@ import java.io.IOException;
 import javafx.scene.control.CheckMenuItem;
 import com.botsteve.mavendepsearcher.utils.FxUtils;
 import com.botsteve.mavendepsearcher.model.EnvSetting;
+import com.botsteve.mavendepsearcher.service.BuildScheduler;
+import com.botsteve.mavendepsearcher.service.DownloadScheduler;
+import com.botsteve.mavendepsearcher.service.GradleAnalysisCache;
+import com.botsteve.mavendepsearcher.service.GradleDaemonManager;
+import com.botsteve.mavendepsearcher.service.GradleDependencyAnalyzerService;
+import com.botsteve.mavendepsearcher.service.SourcesJarService;
+import com.botsteve.mavendepsearcher.tasks.BuildRepositoriesTask;
 import java.io.File;
 
 @Data
@@ -62,6 +69,23 @@ public class MenuComponent {
     addSettingRow(content, settings, "JAVA11_HOME", primaryStage);
     addSettingRow(content, settings, "JAVA8_HOME", primaryStage);
 
+    content.getChildren().add(new javafx.scene.control.Label("Options (leave empty for the default)"));
+    addOptionRow(content, settings, ButtonsComponent.GRADLE_LOCKFILE_REFINE, "true");
+    addOptionRow(content, settings, GradleAnalysisCache.GRADLE_ANALYSIS_CACHE, "true");
+    addOptionRow(content, settings, GradleDependencyAnalyzerService.GRADLE_CONFIGURATION_CACHE, "true");
+    addOptionRow(content, settings, GradleDependencyAnalyzerService.GRADLE_OFFLINE, "false");
+    addOptionRow(content, settings, DownloadScheduler.DOWNLOAD_CONCURRENCY, "8");
+    addOptionRow(content, settings, DownloadScheduler.DOWNLOAD_PER_HOST_CONCURRENCY, "4");
+    addOptionRow(content, settings, DownloadScheduler.DOWNLOAD_MAX_ATTEMPTS, "3");
+    addOptionRow(content, settings, BuildScheduler.BUILD_CONCURRENCY, "cores / 4, at most 8");
+    addOptionRow(content, settings, BuildScheduler.BUILD_MEMORY_BUDGET_MB, "75% of RAM");
+    addOptionRow(content, settings, BuildRepositoriesTask.BUILD_TIMEOUT_MINUTES, "90, 0 for none");
+    addOptionRow(content, settings, BuildRepositoriesTask.BUILD_INACTIVITY_TIMEOUT_MINUTES, "15, 0 for none");
+    addOptionRow(content, settings, GradleDaemonManager.GRADLE_DAEMON_MEMORY_BUDGET_MB, "4096");
+    addOptionRow(content, settings, GradleDaemonManager.GRADLE_DAEMON_IDLE_MINUTES, "30");
+    addOptionRow(content, settings, SourcesJarService.SOURCES_REPOSITORY_URL, "https://repo.maven.apache.org/maven2");
+    addOptionRow(content, settings, SourcesJarService.MAVEN_LOCAL_REPOSITORY, "~/.m2/repository");
+
     ButtonType saveButtonType = new ButtonType("Save", ButtonBar.ButtonData.OK_DONE);
     dialog.getDialogPane().getButtonTypes().addAll(saveButtonType, ButtonType.CANCEL);
 
@@ -110,6 +134,21 @@ public class MenuComponent {
       parent.getChildren().add(row);
   }
 
+  private void addOptionRow(VBox parent, Properties settings, String key, String defaultValue) {
+      javafx.scene.layout.HBox row = new javafx.scene.layout.HBox(10);
+      row.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+
+      javafx.scene.control.Label label = new javafx.scene.control.Label(key);
+      label.setMinWidth(100);
+
+      javafx.scene.control.TextField textField = new javafx.scene.control.TextField(settings.getProperty(key, ""));
+      textField.setPromptText(defaultValue);
+      textField.setPrefWidth(300);
+
+      row.getChildren().addAll(label, textField);
+      parent.getChildren().add(row);
+  }
+
   private void openAboutDialog() {
     Dialog<Void> dialog = new Dialog<>();
     dialog.setTitle("About Project");
@@ -10,6 +10,7 @@ import javafx.collections.ObservableSet;
 import javafx.geometry.Pos;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.TextField;
@@ -17,6 +18,7 @@ import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableView;
 import javafx.scene.layout.HBox;
 import lombok.Data;
+import com.botsteve.mavendepsearcher.model.BuildMode;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
 
 @Data
@@ -33,6 +35,8 @@ public class TableViewComponent {
   private final Set<String> selectedScopes = new LinkedHashSet<>();
   private final CheckBox selectAllCheckBox = new CheckBox("Select All");
   private final CheckBox cleanUpCheckBox = new CheckBox("Clean up existing repos");
+  private final CheckBox sourcesOnlyCheckBox = new CheckBox("Sources jars only");
+  private final ComboBox<BuildMode> buildModeComboBox = new ComboBox<>(FXCollections.observableArrayList(BuildMode.values()));
   private final Label projectNameLabel = new Label("No project loaded");
   private String projectName;
 
@@ -73,6 +77,12 @@ public class TableViewComponent {
     });
     scopeFilterMenu.setMinWidth(120);
     cleanUpCheckBox.setSelected(false);
+    sourcesOnlyCheckBox.setSelected(false);
+    sourcesOnlyCheckBox.setTooltip(new javafx.scene.control.Tooltip(
+        "Download -sources.jar files instead of cloning; falls back to Git when a jar is missing. Sources-only repos cannot be built."));
+    buildModeComboBox.setValue(BuildMode.WITH_TESTS);
+    buildModeComboBox.setTooltip(new javafx.scene.control.Tooltip(
+        "What 'Build Selected' runs: skipping tests, with tests, or offline with the Gradle build cache"));
   }
 
   /**
@@ -262,7 +272,11 @@ public class TableViewComponent {
     javafx.scene.layout.Region spacer = new javafx.scene.layout.Region();
     HBox.setHgrow(spacer, javafx.scene.layout.Priority.ALWAYS);
     
-    box.getChildren().addAll(filterBox, scopeBox, projectBox, spacer, statsLabel, selectAllCheckBox, cleanUpCheckBox);
+    HBox buildModeBox = new HBox(8, new Label("Build:"), buildModeComboBox);
+    buildModeBox.setAlignment(Pos.CENTER_LEFT);
+
+    box.getChildren().addAll(filterBox, scopeBox, projectBox, spacer, statsLabel, selectAllCheckBox, cleanUpCheckBox, sourcesOnlyCheckBox,
+                             buildModeBox);
     return box;
   }
 }
@@ -0,0 +1,31 @@
+package com.botsteve.mavendepsearcher.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The parts of a CycloneDX component the viewer uses; hashes, licenses and
+ * descriptions are skipped while streaming.
+ */
+@Data
+@NoArgsConstructor
+public class BomComponent {
+
+  private String bomRef;
+  private String group;
+  private String name;
+  private String version;
+  private String scope;
+  private String vcsUrl;
+  private Map<String, String> properties = new LinkedHashMap<>();
+
+  @JsonIgnore
+  public String getCoordinates() {
+    // Missing fields are empty, as in the keys of the nodes they are matched with
+    return Objects.toString(group, "") + ":" + Objects.toString(name, "") + ":" + Objects.toString(version, "");
+  }
+}
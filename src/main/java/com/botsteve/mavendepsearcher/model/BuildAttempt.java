@@ -0,0 +1,38 @@
+package com.botsteve.mavendepsearcher.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One build of a repository with one JDK, see
+ * {@link com.botsteve.mavendepsearcher.service.BuildProfileStore}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildAttempt {
+
+  /**
+   * maven, gradle or ant.
+   */
+  private String tool;
+
+  /**
+   * Setting naming the JDK, e.g. JAVA17_HOME; JAVA_HOME for the system JDK.
+   */
+  private String jdk;
+
+  private String command;
+
+  /**
+   * Null for attempts recorded before build modes existed.
+   */
+  private BuildMode mode;
+
+  private long durationMillis;
+
+  private boolean success;
+
+  private long timestamp;
+}
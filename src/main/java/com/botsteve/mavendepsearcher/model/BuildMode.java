@@ -0,0 +1,37 @@
+package com.botsteve.mavendepsearcher.model;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * What a repository build runs, selected before building. The arguments are appended to the
+ * Maven and Gradle build commands; Ant builds run their default target in every mode.
+ */
+@Getter
+public enum BuildMode {
+  /**
+   * Compiles and packages without running the tests.
+   */
+  FAST("Fast (skip tests)", List.of("-DskipTests"), List.of("-x", "test")),
+  WITH_TESTS("With tests", List.of(), List.of()),
+  /**
+   * Like {@link #FAST}, without network access; Gradle also reuses task outputs from its local
+   * build cache.
+   */
+  OFFLINE("Offline (build cache)", List.of("-o", "-DskipTests"), List.of("--offline", "--build-cache", "-x", "test"));
+
+  private final String label;
+  private final List<String> mavenArguments;
+  private final List<String> gradleArguments;
+
+  BuildMode(String label, List<String> mavenArguments, List<String> gradleArguments) {
+    this.label = label;
+    this.mavenArguments = mavenArguments;
+    this.gradleArguments = gradleArguments;
+  }
+
+  @Override
+  public String toString() {
+    return label;
+  }
+}
@@ -0,0 +1,30 @@
+package com.botsteve.mavendepsearcher.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Components and dependency graph read from a CycloneDX BOM.
+ */
+@Data
+@NoArgsConstructor
+public class CycloneDxBom {
+
+  /**
+   * bom-ref of metadata.component, the project the BOM was generated for.
+   */
+  private String rootRef;
+
+  /**
+   * Components by bom-ref, in document order.
+   */
+  private Map<String, BomComponent> components = new LinkedHashMap<>();
+
+  /**
+   * bom-ref -> bom-refs it directly depends on, from the "dependencies" section.
+   */
+  private Map<String, List<String>> dependencies = new LinkedHashMap<>();
+}
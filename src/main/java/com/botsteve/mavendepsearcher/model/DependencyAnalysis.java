@@ -0,0 +1,46 @@
+package com.botsteve.mavendepsearcher.model;
+
+import java.util.Set;
+import lombok.Value;
+
+/**
+ * The dependencies of a project together with how one analysis call obtained them, so
+ * concurrent analyses of the same project never mix up each other's details.
+ */
+@Value
+public class DependencyAnalysis {
+
+  public enum Source {
+    MAVEN,
+    /**
+     * Committed Gradle lockfiles, Gradle was not started.
+     */
+    LOCKFILES,
+    /**
+     * A cached Gradle analysis of unchanged build files.
+     */
+    ANALYSIS_CACHE,
+    CYCLONEDX,
+    /**
+     * The parsed output of {@code gradle dependencies}.
+     */
+    DEPENDENCIES_REPORT
+  }
+
+  Set<DependencyNode> dependencies;
+  Source source;
+  /**
+   * Duration of the original Gradle run when answered from the analysis cache, 0 otherwise.
+   */
+  long cacheSavedMillis;
+
+  public DependencyAnalysis(Set<DependencyNode> dependencies, Source source) {
+    this(dependencies, source, 0);
+  }
+
+  public DependencyAnalysis(Set<DependencyNode> dependencies, Source source, long cacheSavedMillis) {
+    this.dependencies = dependencies;
+    this.source = source;
+    this.cacheSavedMillis = cacheSavedMillis;
+  }
+}
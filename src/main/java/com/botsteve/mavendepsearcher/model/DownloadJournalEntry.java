@@ -0,0 +1,33 @@
+package com.botsteve.mavendepsearcher.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last recorded state of a repository download, see
+ * {@link com.botsteve.mavendepsearcher.service.DownloadJournal}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadJournalEntry {
+
+  private String uri;
+
+  private String version;
+
+  private DownloadState state;
+
+  /**
+   * Checked out tag, set once the state is CHECKED_OUT.
+   */
+  private String tag;
+
+  /**
+   * Message of the last failure, cleared when the download moves on.
+   */
+  private String error;
+
+  private long updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.botsteve.mavendepsearcher.model;
+
+/**
+ * Progress of one repository download, in the order the states are reached.
+ */
+public enum DownloadState {
+  QUEUED,
+  CLONING,
+  FETCHED,
+  CHECKED_OUT
+}
@@ -0,0 +1,30 @@
+package com.botsteve.mavendepsearcher.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a Gradle analysis run, stored together with the fingerprint of the build files
+ * it was computed from.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradleAnalysisCacheEntry {
+
+  private String fingerprint;
+
+  /**
+   * Wall-clock time of the Gradle run that produced the entry, reported as saved on a hit.
+   */
+  private long durationMillis;
+
+  /**
+   * The dependency tree as a flat graph: each dependency once, with the edges to its own
+   * dependencies, and the top-level dependencies as those of the root.
+   */
+  private CycloneDxBom graph;
+}
@@ -0,0 +1,28 @@
+package com.botsteve.mavendepsearcher.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What is known about building a repository at one revision: the JDK and command that last
+ * succeeded, and the recent attempts.
+ */
+@Data
+@NoArgsConstructor
+public class RepositoryBuildProfile {
+
+  private String repository;
+
+  /**
+   * Checked-out tag, or the HEAD commit when no tag points at it.
+   */
+  private String revision;
+
+  private String jdk;
+
+  private String command;
+
+  private List<BuildAttempt> attempts = new ArrayList<>();
+}
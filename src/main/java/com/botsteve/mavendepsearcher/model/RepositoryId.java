@@ -0,0 +1,93 @@
+package com.botsteve.mavendepsearcher.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.Value;
+
+/**
+ * Canonical identity of a source repository, independent of how its SCM URL is spelled.
+ *
+ * http://github.com/x/y/, https://github.com/x/y.git, scm:git:git@github.com:x/y and
+ * git://github.com/x/y all parse to github.com / x / y, so they group, name directories and key
+ * caches the same way.
+ */
+@Value
+public class RepositoryId {
+
+  private static final Pattern SCM_PREFIX = Pattern.compile("^scm:[a-z]+:", Pattern.CASE_INSENSITIVE);
+  private static final Pattern SCHEME = Pattern.compile("^[a-z][a-z0-9+.-]*://", Pattern.CASE_INSENSITIVE);
+  private static final Pattern SCP_LIKE = Pattern.compile("^(?:[^@/]+@)?([^:/]+):(?!//)(.*)$");
+  /**
+   * Hosts where only owner/repo identifies the repository, anything after it is a web page.
+   */
+  private static final Set<String> TWO_SEGMENT_HOSTS = Set.of("github.com", "bitbucket.org");
+
+  /**
+   * Lower-case host without port or user, empty for local repositories.
+   */
+  String host;
+
+  /**
+   * Path between the host and the repository name, may span several segments (GitLab groups).
+   */
+  String owner;
+
+  /**
+   * Repository name as spelled in the URL, without .git.
+   */
+  String name;
+
+  public static RepositoryId parse(String scmUrl) {
+    String url = scmUrl == null ? "" : SCM_PREFIX.matcher(scmUrl.trim()).replaceFirst("");
+    url = url.replaceFirst("[?#].*$", "");
+
+    String host;
+    String path;
+    Matcher scheme = SCHEME.matcher(url);
+    Matcher scpLike = SCP_LIKE.matcher(url);
+    if (scheme.find()) {
+      String rest = url.substring(scheme.end());
+      boolean local = scheme.group().toLowerCase(Locale.ROOT).startsWith("file");
+      int slash = rest.indexOf('/');
+      host = local || slash == -1 ? "" : rest.substring(0, slash);
+      path = local ? rest : slash == -1 ? rest : rest.substring(slash);
+    } else if (scpLike.matches()) {
+      host = scpLike.group(1);
+      path = scpLike.group(2);
+    } else {
+      host = "";
+      path = url;
+    }
+    host = host.replaceFirst("^[^@]*@", "").replaceFirst(":\\d*$", "").toLowerCase(Locale.ROOT)
+        .replaceFirst("^www\\.", "");
+
+    List<String> segments = Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toList();
+    if (TWO_SEGMENT_HOSTS.contains(host) && segments.size() > 2) {
+      segments = segments.subList(0, 2);
+    }
+    if (segments.isEmpty()) {
+      return new RepositoryId(host, "", "");
+    }
+    String name = segments.get(segments.size() - 1).replaceFirst("(?i)\\.git$", "");
+    return new RepositoryId(host, String.join("/", segments.subList(0, segments.size() - 1)), name);
+  }
+
+  /**
+   * host/owner/name in lower case, safe to use as a relative path.
+   */
+  public String getKey() {
+    String key = String.join("/", Arrays.stream(new String[]{host, owner, name}).filter(part -> !part.isEmpty()).toList())
+        .toLowerCase(Locale.ROOT)
+        .replace("..", "_");
+    return key.replaceAll("[^a-z0-9._/-]", "_");
+  }
+
+  @Override
+  public String toString() {
+    return getKey();
+  }
+}
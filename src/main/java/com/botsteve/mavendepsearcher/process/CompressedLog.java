@@ -0,0 +1,58 @@
+package com.botsteve.mavendepsearcher.process;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gzip-compressed text file receiving the output lines of a process. A failing write disables the
+ * log instead of failing the process it records.
+ */
+@Slf4j
+public class CompressedLog implements Consumer<String>, Closeable {
+
+  @Getter
+  private final Path file;
+  private BufferedWriter writer;
+
+  public CompressedLog(Path file) throws IOException {
+    this.file = file;
+    this.writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)),
+                                                            StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public synchronized void accept(String line) {
+    if (writer == null) return;
+    try {
+      writer.write(line);
+      writer.newLine();
+    } catch (IOException e) {
+      log.warn("Stopped writing {}: {}", file, e.getMessage());
+      closeQuietly();
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    closeQuietly();
+  }
+
+  private void closeQuietly() {
+    if (writer == null) return;
+    try {
+      writer.close();
+    } catch (IOException e) {
+      log.warn("Could not close {}: {}", file, e.getMessage());
+    }
+    writer = null;
+  }
+}
@@ -0,0 +1,132 @@
+package com.botsteve.mavendepsearcher.process;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import lombok.Getter;
+
+/**
+ * Recognises from a build's output why it is failing. Only the errors reported by the build tool
+ * are read: Maven's {@code [ERROR]} lines and the {@code FAILURE:} / {@code * What went wrong:}
+ * block of Gradle and Ant's {@code BUILD FAILED}. Everything else, test output, debug logging
+ * and stack traces included, may mention recovered problems, e.g. a refused connection in a
+ * passing test or an unreachable mirror before trying the next one.
+ *
+ * A cause that {@link Cause#isStopsBuild() stops the build} wins at once and {@link #isHopeless()}
+ * then tells the caller to kill the build instead of waiting for its end. The other causes only
+ * diagnose a build that failed; the last one reported is kept, since the tools sum up the failure
+ * at the end.
+ */
+public class FailureClassifier implements Consumer<String> {
+
+  @Getter
+  public enum Cause {
+    /**
+     * The JDK is too old or too new for the sources or the build tool; another JDK may work.
+     */
+    WRONG_JDK("wrong JDK", true, true,
+              "BUG! exception in phase .*Unsupported class file major version",
+              "UnsupportedClassVersionError",
+              "invalid (?:target|source) release",
+              "release version \\d+ not supported",
+              "Unsupported Java\\. Your build is currently configured to use Java",
+              "(?:Source|Target) option \\d+ is no longer supported"),
+    /**
+     * A toolchain asked for by the build is not configured; the JDK running the tool does not
+     * matter.
+     */
+    MISSING_TOOLCHAIN("missing toolchain", false, true,
+                      "Cannot find matching toolchain definitions",
+                      "No toolchain found",
+                      "No matching toolchains found",
+                      "Cannot find a Java installation on your machine matching"),
+    /**
+     * The tests fail; they may pass on another JDK.
+     */
+    TEST_FAILURE("test failure", true, false,
+                 "Failed to execute goal org\\.apache\\.maven\\.plugins:maven-(?:surefire|failsafe)-plugin",
+                 "Execution failed for task '[^']*:test'"),
+    /**
+     * Dependencies or plugins cannot be downloaded or resolved, no JDK will change that.
+     */
+    NETWORK("network or dependency resolution error", false, false,
+            "Could not transfer artifact",
+            "UnknownHostException",
+            "Connection (?:timed out|refused)",
+            "Network is unreachable",
+            "Could not resolve all (?:files|dependencies|artifacts) for configuration",
+            "Failed to read artifact descriptor");
+
+    private final String description;
+    /**
+     * Another JDK may get past this cause.
+     */
+    private final boolean retryWithOtherJdk;
+    /**
+     * The build cannot get past this cause, so it is killed as soon as it is reported.
+     */
+    private final boolean stopsBuild;
+    private final List<Pattern> patterns;
+
+    Cause(String description, boolean retryWithOtherJdk, boolean stopsBuild, String... patterns) {
+      this.description = description;
+      this.retryWithOtherJdk = retryWithOtherJdk;
+      this.stopsBuild = stopsBuild;
+      this.patterns = Arrays.stream(patterns).map(Pattern::compile).toList();
+    }
+  }
+
+  private static final Pattern MAVEN_ERROR = Pattern.compile("\\s*\\[ERROR]");
+  private static final Pattern FAILURE_START = Pattern.compile("FAILURE:|\\* What went wrong:|BUILD FAILED");
+  private static final Pattern FAILURE_END = Pattern.compile("\\* (?:Try|Exception is|Get more help at):|BUILD SUCCESSFUL|Total time:");
+
+  private volatile Cause cause;
+  private volatile String evidence;
+  /**
+   * Within a failure block of Gradle or Ant.
+   */
+  private boolean inFailure;
+
+  @Override
+  public void accept(String line) {
+    if (isHopeless()) return;
+    if (FAILURE_START.matcher(line).lookingAt()) {
+      inFailure = true;
+    } else if (FAILURE_END.matcher(line).lookingAt()) {
+      inFailure = false;
+    }
+    if (!inFailure && !MAVEN_ERROR.matcher(line).lookingAt()) return;
+    for (Cause candidate : Cause.values()) {
+      for (Pattern pattern : candidate.patterns) {
+        if (pattern.matcher(line).find()) {
+          evidence = line.trim();
+          cause = candidate;
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the recognised cause, or null.
+   */
+  public Cause getCause() {
+    return cause;
+  }
+
+  /**
+   * The output line the cause was recognised from, or null.
+   */
+  public String getEvidence() {
+    return evidence;
+  }
+
+  /**
+   * A cause stopping the build was recognised, so it will fail whatever it does next.
+   */
+  public boolean isHopeless() {
+    Cause current = cause;
+    return current != null && current.stopsBuild;
+  }
+}
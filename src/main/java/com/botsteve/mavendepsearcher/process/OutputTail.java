@@ -0,0 +1,48 @@
+package com.botsteve.mavendepsearcher.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring buffer with the last lines of a process output, kept for error reporting.
+ * Memory is bounded by the capacity and the line length limit, however long the output is.
+ */
+public class OutputTail {
+
+  public static final int MAX_LINE_LENGTH = 4096;
+
+  private final String[] lines;
+  private int next;
+  private long totalLines;
+
+  public OutputTail(int capacity) {
+    this.lines = new String[Math.max(1, capacity)];
+  }
+
+  public synchronized void add(String line) {
+    lines[next] = line.length() > MAX_LINE_LENGTH ? line.substring(0, MAX_LINE_LENGTH) : line;
+    next = (next + 1) % lines.length;
+    totalLines++;
+  }
+
+  /**
+   * Returns the retained lines, oldest first.
+   */
+  public synchronized List<String> getLines() {
+    List<String> result = new ArrayList<>(lines.length);
+    for (int i = 0; i < lines.length; i++) {
+      String line = lines[(next + i) % lines.length];
+      if (line != null) result.add(line);
+    }
+    return result;
+  }
+
+  public synchronized long getTotalLines() {
+    return totalLines;
+  }
+
+  @Override
+  public String toString() {
+    return String.join(System.lineSeparator(), getLines());
+  }
+}
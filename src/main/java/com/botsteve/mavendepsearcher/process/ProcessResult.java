@@ -0,0 +1,54 @@
+package com.botsteve.mavendepsearcher.process;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Outcome of a {@link ProcessRunner} invocation.
+ */
+@Value
+@Builder
+public class ProcessResult {
+
+  List<String> command;
+  int exitCode;
+  long wallTimeMillis;
+  /**
+   * CPU time of the process and its descendants as sampled while it ran, -1 when the platform
+   * does not report it.
+   */
+  long cpuTimeMillis;
+  boolean timedOut;
+  /**
+   * Killed after printing nothing for the inactivity timeout.
+   */
+  boolean stalled;
+  boolean cancelled;
+  OutputTail tail;
+
+  public boolean isSuccess() {
+    return exitCode == 0 && !timedOut && !stalled && !cancelled;
+  }
+
+  /**
+   * Short reason for a failed run, for error messages.
+   */
+  public String describeExit() {
+    if (timedOut) return "timed out after " + wallTimeMillis + " ms";
+    if (stalled) return "stalled, no output for too long after " + wallTimeMillis + " ms";
+    if (cancelled) return "cancelled";
+    return "exit code " + exitCode;
+  }
+
+  /**
+   * The process tree was killed, by a timeout or a cancellation.
+   */
+  public boolean isKilled() {
+    return timedOut || stalled || cancelled;
+  }
+
+  public long getLineCount() {
+    return tail.getTotalLines();
+  }
+}
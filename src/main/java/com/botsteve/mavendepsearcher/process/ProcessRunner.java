@@ -0,0 +1,257 @@
+package com.botsteve.mavendepsearcher.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs an external tool with stdout and stderr merged into a single pump thread.
+ *
+ * Each line goes to the registered consumers and into a bounded {@link OutputTail}; nothing else
+ * is retained, so memory stays flat however chatty the tool is. Consumers run on the pump thread:
+ * a slow consumer stalls the pipe and with it the child process, instead of buffering output.
+ * Timeouts, a stalled output and cancellation kill the whole process tree.
+ *
+ * Output is decoded with the platform's native encoding, the one tools write their console
+ * output in, and is read to its end once the process exits.
+ */
+@Slf4j
+@Builder
+public class ProcessRunner {
+
+  private static final long POLL_INTERVAL_MILLIS = 250;
+  private static final long KILL_GRACE_MILLIS = 5000;
+  /**
+   * How long output is still read after exit while a surviving descendant keeps the pipe open.
+   */
+  private static final long PUMP_DRAIN_MILLIS = 2000;
+  private static final Charset OUTPUT_CHARSET = nativeCharset();
+
+  private final List<String> command;
+  private final File directory;
+  /**
+   * Extra environment variables; null or empty values are not set.
+   */
+  @Singular("env")
+  private final Map<String, String> environment;
+  /**
+   * Wall-clock limit, null for none.
+   */
+  private final Duration timeout;
+  /**
+   * Longest time without a line of output, null for none.
+   */
+  private final Duration inactivityTimeout;
+  @Singular
+  private final List<Consumer<String>> lineConsumers;
+  /**
+   * Polled while the process runs; returning true kills the process tree.
+   */
+  private final BooleanSupplier cancelledWhen;
+  @Builder.Default
+  private final int tailLines = 200;
+  @Builder.Default
+  private final String name = "process";
+
+  public ProcessResult run() throws IOException, InterruptedException {
+    ProcessBuilder processBuilder = new ProcessBuilder(command);
+    if (directory != null) {
+      processBuilder.directory(directory);
+    }
+    processBuilder.redirectErrorStream(true);
+    environment.forEach((key, value) -> {
+      if (value != null && !value.isEmpty()) {
+        processBuilder.environment().put(key, value);
+      }
+    });
+
+    OutputTail tail = new OutputTail(tailLines);
+    long start = System.nanoTime();
+    Process process = processBuilder.start();
+    Thread pump = new Thread(() -> pump(process.getInputStream(), tail), name + "-output");
+    pump.setDaemon(true);
+    pump.start();
+
+    Map<Long, Long> cpuByPid = new HashMap<>();
+    Set<ProcessHandle> descendants = new HashSet<>();
+    long deadline = timeout == null ? Long.MAX_VALUE : start + timeout.toNanos();
+    boolean timedOut = false;
+    boolean stalled = false;
+    boolean cancelled = false;
+    long linesSeen = 0;
+    long lastActivity = start;
+    try {
+      sampleCpu(process.toHandle(), cpuByPid, descendants);
+      while (!process.waitFor(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+        sampleCpu(process.toHandle(), cpuByPid, descendants);
+        long now = System.nanoTime();
+        if (tail.getTotalLines() != linesSeen) {
+          linesSeen = tail.getTotalLines();
+          lastActivity = now;
+        }
+        if (cancelledWhen != null && cancelledWhen.getAsBoolean()) {
+          cancelled = true;
+          break;
+        }
+        if (now - deadline > 0) {
+          timedOut = true;
+          break;
+        }
+        if (inactivityTimeout != null && now - lastActivity > inactivityTimeout.toNanos()) {
+          stalled = true;
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      destroyTree(process);
+      throw e;
+    }
+
+    if (timedOut || stalled || cancelled) {
+      log.warn("{} {} after {} ms, killing process tree", name,
+               timedOut ? "timed out" : stalled ? "stalled without output" : "was cancelled",
+               TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      destroyTree(process);
+    }
+    int exitCode = process.waitFor();
+    drain(pump, descendants, tail);
+
+    ProcessResult result = ProcessResult.builder()
+        .command(command)
+        .exitCode(exitCode)
+        .wallTimeMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+        .cpuTimeMillis(cpuByPid.isEmpty() ? -1 : cpuByPid.values().stream().mapToLong(Long::longValue).sum())
+        .timedOut(timedOut)
+        .stalled(stalled)
+        .cancelled(cancelled)
+        .tail(tail)
+        .build();
+    log.info("{} exited with code {} after {} ms wall, {} ms CPU, {} lines of output", name, exitCode,
+             result.getWallTimeMillis(), result.getCpuTimeMillis(), result.getLineCount());
+    return result;
+  }
+
+  /**
+   * Splits the stream into lines without ever holding more than one (length-capped) line.
+   */
+  private void pump(InputStream stream, OutputTail tail) {
+    try (Reader reader = new InputStreamReader(stream, OUTPUT_CHARSET)) {
+      char[] buffer = new char[8192];
+      StringBuilder line = new StringBuilder();
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        for (int i = 0; i < read; i++) {
+          char c = buffer[i];
+          if (c == '\n') {
+            emit(line.toString(), tail);
+            line.setLength(0);
+          } else if (c != '\r' && line.length() < OutputTail.MAX_LINE_LENGTH) {
+            line.append(c);
+          }
+        }
+      }
+      if (!line.isEmpty()) {
+        emit(line.toString(), tail);
+      }
+    } catch (IOException e) {
+      log.debug("Output of {} closed: {}", name, e.getMessage());
+    }
+  }
+
+  /**
+   * Waits for the pump to read the output to its end. A descendant that outlived the process may
+   * keep the pipe open indefinitely; while one is alive the wait is bounded and the unread output
+   * is given up.
+   */
+  private void drain(Thread pump, Set<ProcessHandle> descendants, OutputTail tail) throws InterruptedException {
+    long drainDeadline = Long.MAX_VALUE;
+    while (pump.isAlive()) {
+      pump.join(POLL_INTERVAL_MILLIS);
+      if (!pump.isAlive()) {
+        return;
+      }
+      if (drainDeadline == Long.MAX_VALUE && descendants.stream().anyMatch(ProcessHandle::isAlive)) {
+        drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PUMP_DRAIN_MILLIS);
+      }
+      if (System.nanoTime() - drainDeadline > 0) {
+        log.warn("{} exited but a surviving child process still holds its output, stopped reading after {} lines",
+                 name, tail.getTotalLines());
+        return;
+      }
+    }
+  }
+
+  private void emit(String line, OutputTail tail) {
+    tail.add(line);
+    for (Consumer<String> consumer : lineConsumers) {
+      try {
+        consumer.accept(line);
+      } catch (RuntimeException e) {
+        log.warn("Output consumer of {} failed: {}", name, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Records the latest CPU time of the process and each live descendant; exited processes keep
+   * their last sample. Descendants are remembered so that survivors can be found after exit.
+   */
+  private static void sampleCpu(ProcessHandle root, Map<Long, Long> cpuByPid, Set<ProcessHandle> descendants) {
+    try {
+      sampleCpuOf(root, cpuByPid);
+      root.descendants().forEach(handle -> {
+        descendants.add(handle);
+        sampleCpuOf(handle, cpuByPid);
+      });
+    } catch (RuntimeException e) {
+      // Process tree changed while walking it, keep the previous samples
+    }
+  }
+
+  private static void sampleCpuOf(ProcessHandle handle, Map<Long, Long> cpuByPid) {
+    handle.info().totalCpuDuration()
+        .ifPresent(cpu -> cpuByPid.merge(handle.pid(), cpu.toMillis(), Math::max));
+  }
+
+  private static Charset nativeCharset() {
+    try {
+      return Charset.forName(System.getProperty("native.encoding"), Charset.defaultCharset());
+    } catch (IllegalArgumentException e) {
+      return Charset.defaultCharset();
+    }
+  }
+
+  /**
+   * Asks the process and all its descendants to terminate, then force-kills whatever is still
+   * alive after a grace period.
+   */
+  public static void destroyTree(Process process) {
+    List<ProcessHandle> descendants = process.descendants().toList();
+    descendants.forEach(ProcessHandle::destroy);
+    process.destroy();
+    try {
+      if (!process.waitFor(KILL_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+        process.destroyForcibly();
+      }
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+    descendants.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+  }
+}
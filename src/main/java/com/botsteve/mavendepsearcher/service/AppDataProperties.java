@@ -0,0 +1,52 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Small key/value files kept under app_data, e.g. learned per-repository data. Reads never fail,
+ * a missing or unreadable file is empty; writes replace the file atomically.
+ */
+@Slf4j
+public class AppDataProperties {
+
+  private static final Object LOCK = new Object();
+
+  public static Properties load(String directory, String fileName) {
+    Properties properties = new Properties();
+    Path file = getAppDataPath(directory).resolve(fileName);
+    synchronized (LOCK) {
+      if (Files.exists(file)) {
+        try (InputStream in = Files.newInputStream(file)) {
+          properties.load(in);
+        } catch (IOException e) {
+          log.warn("Could not read {}: {}", file, e.getMessage());
+        }
+      }
+    }
+    return properties;
+  }
+
+  public static void store(String directory, String fileName, Properties properties, String comment) {
+    Path file = getAppDataPath(directory).resolve(fileName);
+    synchronized (LOCK) {
+      try {
+        Path temp = file.resolveSibling(fileName + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+          properties.store(out, comment);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        log.warn("Could not store {}: {}", file, e.getMessage());
+      }
+    }
+  }
+}
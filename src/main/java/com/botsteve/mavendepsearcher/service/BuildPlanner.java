@@ -0,0 +1,258 @@
+package com.botsteve.mavendepsearcher.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.DocumentBuilderFactory;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import com.botsteve.mavendepsearcher.utils.GradleSettingsParser;
+
+/**
+ * Orders the downloaded repositories so that each one is built after the repositories it
+ * depends on.
+ *
+ * Coordinates produced and consumed are read statically from the build files: the POM and its
+ * modules (parent, dependencies, imported BOMs) for Maven, group, project names and quoted
+ * group:artifact notations for Gradle. A repository depends on another when it consumes one of
+ * its coordinates. Repositories are grouped in waves, each wave depending only on earlier ones,
+ * so the builds inside a wave can run in parallel. Repositories caught in a cycle form a last
+ * wave.
+ */
+@Slf4j
+public class BuildPlanner {
+
+  private static final int MAX_MODULE_DEPTH = 5;
+  private static final Pattern GRADLE_GROUP = Pattern.compile("(?m)^\\s*group\\s*=\\s*[\"']([^\"']+)[\"']");
+  private static final Pattern GRADLE_PROPERTIES_GROUP = Pattern.compile("(?m)^\\s*group\\s*=\\s*(\\S+)");
+  private static final Pattern ROOT_PROJECT_NAME = Pattern.compile("rootProject\\.name\\s*=\\s*[\"']([^\"']+)[\"']");
+  private static final Pattern GRADLE_NOTATION = Pattern.compile("[\"']([A-Za-z0-9_.\\-]+):([A-Za-z0-9_.\\-]+)(:[^\"'\\s]*)?[\"']");
+
+  @Value
+  public static class Plan {
+    List<List<File>> waves;
+    /**
+     * Repositories another repository of the plan depends on; their products have to be
+     * installed in the local repository.
+     */
+    Set<File> upstream;
+    Map<File, Set<File>> dependencies;
+
+    public boolean hasDependents(File repo) {
+      return upstream.contains(repo);
+    }
+  }
+
+  public static Plan plan(List<File> repositories) {
+    Map<String, File> producers = new HashMap<>();
+    Map<File, Set<String>> consumed = new LinkedHashMap<>();
+    for (File repo : repositories) {
+      Coordinates coordinates = readCoordinates(repo);
+      coordinates.produced.forEach(coordinate -> producers.putIfAbsent(coordinate, repo));
+      consumed.put(repo, coordinates.consumed);
+    }
+
+    Map<File, Set<File>> dependencies = new LinkedHashMap<>();
+    Set<File> upstream = new HashSet<>();
+    consumed.forEach((repo, coordinates) -> {
+      Set<File> dependsOn = new LinkedHashSet<>();
+      for (String coordinate : coordinates) {
+        File producer = producers.get(coordinate);
+        if (producer != null && !producer.equals(repo)) {
+          dependsOn.add(producer);
+        }
+      }
+      upstream.addAll(dependsOn);
+      dependencies.put(repo, dependsOn);
+    });
+
+    List<List<File>> waves = new ArrayList<>();
+    Set<File> planned = new HashSet<>();
+    List<File> remaining = new ArrayList<>(repositories);
+    remaining.sort(Comparator.comparing(File::getName));
+    while (!remaining.isEmpty()) {
+      List<File> wave = remaining.stream().filter(repo -> planned.containsAll(dependencies.get(repo))).toList();
+      if (wave.isEmpty()) {
+        log.warn("Dependency cycle between {}, building them last in any order",
+                 remaining.stream().map(File::getName).toList());
+        wave = List.copyOf(remaining);
+      }
+      waves.add(wave);
+      planned.addAll(wave);
+      remaining.removeAll(wave);
+    }
+    log.info("Build plan: {}", describe(waves));
+    return new Plan(waves, upstream, dependencies);
+  }
+
+  static String describe(List<List<File>> waves) {
+    StringBuilder description = new StringBuilder();
+    for (int i = 0; i < waves.size(); i++) {
+      description.append(i == 0 ? "" : " -> ").append(waves.get(i).stream().map(File::getName).toList());
+    }
+    return description.toString();
+  }
+
+  private static Coordinates readCoordinates(File repo) {
+    Coordinates coordinates = new Coordinates();
+    try {
+      File pom = new File(repo, "pom.xml");
+      if (pom.exists()) {
+        readPom(pom, coordinates, 0);
+      } else if (GradleSettingsParser.findSettingsFile(repo) != null || new File(repo, "build.gradle").exists()
+                 || new File(repo, "build.gradle.kts").exists()) {
+        readGradle(repo, coordinates);
+      }
+    } catch (Exception e) {
+      log.warn("Could not read the coordinates of {}, building it without ordering: {}", repo.getName(), e.getMessage());
+    }
+    // A repository does not depend on itself
+    coordinates.consumed.removeAll(coordinates.produced);
+    return coordinates;
+  }
+
+  private static void readPom(File pom, Coordinates coordinates, int depth) throws Exception {
+    var factory = DocumentBuilderFactory.newInstance();
+    factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    Element project = factory.newDocumentBuilder().parse(pom).getDocumentElement();
+
+    Element parent = child(project, "parent");
+    String groupId = text(project, "groupId");
+    if (groupId == null && parent != null) {
+      groupId = text(parent, "groupId");
+    }
+    String artifactId = text(project, "artifactId");
+    if (groupId != null && artifactId != null) {
+      coordinates.produced.add(groupId + ":" + artifactId);
+    }
+    if (parent != null) {
+      addCoordinate(coordinates.consumed, parent, groupId);
+    }
+    Element dependencies = child(project, "dependencies");
+    if (dependencies != null) {
+      for (Element dependency : children(dependencies, "dependency")) {
+        addCoordinate(coordinates.consumed, dependency, groupId);
+      }
+    }
+    Element dependencyManagement = child(project, "dependencyManagement");
+    Element managed = dependencyManagement == null ? null : child(dependencyManagement, "dependencies");
+    if (managed != null) {
+      for (Element dependency : children(managed, "dependency")) {
+        if ("import".equals(text(dependency, "scope"))) {
+          addCoordinate(coordinates.consumed, dependency, groupId);
+        }
+      }
+    }
+
+    Element modules = child(project, "modules");
+    if (modules != null && depth < MAX_MODULE_DEPTH) {
+      for (Element module : children(modules, "module")) {
+        File modulePom = new File(pom.getParentFile(), module.getTextContent().trim());
+        if (modulePom.isDirectory()) {
+          modulePom = new File(modulePom, "pom.xml");
+        }
+        if (modulePom.isFile()) {
+          readPom(modulePom, coordinates, depth + 1);
+        }
+      }
+    }
+  }
+
+  private static void readGradle(File repo, Coordinates coordinates) throws IOException {
+    String group = null;
+    List<File> buildFiles = new ArrayList<>();
+    File settings = GradleSettingsParser.findSettingsFile(repo);
+    Set<String> projectNames = new LinkedHashSet<>();
+    projectNames.add(repo.getName());
+    if (settings != null) {
+      Matcher rootName = ROOT_PROJECT_NAME.matcher(Files.readString(settings.toPath()));
+      if (rootName.find()) {
+        projectNames.add(rootName.group(1));
+      }
+    }
+    List<String> included = GradleSettingsParser.parseIncludedProjects(repo);
+    List<File> projectDirs = new ArrayList<>(List.of(repo));
+    if (included != null) {
+      for (String path : included) {
+        projectNames.add(path.substring(path.lastIndexOf(':') + 1));
+        projectDirs.add(GradleSettingsParser.toProjectDirectory(repo, path));
+      }
+    }
+    for (File dir : projectDirs) {
+      for (String name : List.of("build.gradle", "build.gradle.kts")) {
+        File buildFile = new File(dir, name);
+        if (buildFile.isFile()) buildFiles.add(buildFile);
+      }
+    }
+
+    File gradleProperties = new File(repo, "gradle.properties");
+    if (gradleProperties.isFile()) {
+      Matcher matcher = GRADLE_PROPERTIES_GROUP.matcher(Files.readString(gradleProperties.toPath()));
+      if (matcher.find()) group = matcher.group(1);
+    }
+    for (File buildFile : buildFiles) {
+      String content = Files.readString(buildFile.toPath());
+      Matcher groupMatcher = GRADLE_GROUP.matcher(content);
+      if (group == null && groupMatcher.find()) group = groupMatcher.group(1);
+      Matcher notation = GRADLE_NOTATION.matcher(content);
+      while (notation.find()) {
+        coordinates.consumed.add(notation.group(1) + ":" + notation.group(2));
+      }
+    }
+    if (group != null) {
+      for (String name : projectNames) {
+        coordinates.produced.add(group + ":" + name);
+      }
+    }
+  }
+
+  private static void addCoordinate(Set<String> target, Element element, String projectGroupId) {
+    String groupId = text(element, "groupId");
+    String artifactId = text(element, "artifactId");
+    if (groupId == null || artifactId == null) return;
+    if (groupId.equals("${project.groupId}") || groupId.equals("${groupId}")) {
+      groupId = projectGroupId;
+    }
+    if (groupId != null && !groupId.contains("${") && !artifactId.contains("${")) {
+      target.add(groupId + ":" + artifactId);
+    }
+  }
+
+  private static Element child(Element parent, String name) {
+    List<Element> children = children(parent, name);
+    return children.isEmpty() ? null : children.get(0);
+  }
+
+  private static List<Element> children(Element parent, String name) {
+    List<Element> result = new ArrayList<>();
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node instanceof Element element && name.equals(element.getTagName())) {
+        result.add(element);
+      }
+    }
+    return result;
+  }
+
+  private static String text(Element parent, String name) {
+    Element element = child(parent, name);
+    return element == null ? null : element.getTextContent().trim();
+  }
+
+  private static class Coordinates {
+    final Set<String> produced = new HashSet<>();
+    final Set<String> consumed = new HashSet<>();
+  }
+}
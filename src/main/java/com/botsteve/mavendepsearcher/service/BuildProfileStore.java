@@ -0,0 +1,139 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.BuildAttempt;
+import com.botsteve.mavendepsearcher.model.BuildMode;
+import com.botsteve.mavendepsearcher.model.RepositoryBuildProfile;
+
+/**
+ * Remembers, per repository and revision, which JDK and command built it and how long every
+ * attempt took, so a rebuild starts with the JDK known to work instead of trying them all.
+ *
+ * Across all repositories, the attempts also give each JDK a success rate per build tool, used
+ * to order the JDKs tried for repositories never built before, and each {@link BuildMode} its
+ * average build duration.
+ */
+@Slf4j
+public class BuildProfileStore {
+
+  private static final String PROFILES_DIR = "build-profiles";
+  private static final String PROFILES_FILE = "profiles.json";
+  private static final int MAX_ATTEMPTS_KEPT = 20;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Path file;
+  private final Map<String, RepositoryBuildProfile> profiles;
+
+  private BuildProfileStore(Path file, Map<String, RepositoryBuildProfile> profiles) {
+    this.file = file;
+    this.profiles = profiles;
+  }
+
+  public static BuildProfileStore load() {
+    Path file = getAppDataPath(PROFILES_DIR).resolve(PROFILES_FILE);
+    Map<String, RepositoryBuildProfile> profiles = new LinkedHashMap<>();
+    if (Files.exists(file)) {
+      try {
+        profiles.putAll(MAPPER.readValue(file.toFile(), new TypeReference<Map<String, RepositoryBuildProfile>>() {
+        }));
+      } catch (IOException e) {
+        log.warn("Ignoring unreadable build profiles {}: {}", file, e.getMessage());
+      }
+    }
+    return new BuildProfileStore(file, profiles);
+  }
+
+  /**
+   * Returns the JDK setting that last built the repository at this revision, or null.
+   */
+  public synchronized String knownGoodJdk(String repository, String revision) {
+    RepositoryBuildProfile profile = profiles.get(key(repository, revision));
+    return profile == null ? null : profile.getJdk();
+  }
+
+  public synchronized void record(String repository, String revision, BuildAttempt attempt) {
+    RepositoryBuildProfile profile = profiles.computeIfAbsent(key(repository, revision), k -> {
+      RepositoryBuildProfile created = new RepositoryBuildProfile();
+      created.setRepository(repository);
+      created.setRevision(revision);
+      return created;
+    });
+    List<BuildAttempt> attempts = profile.getAttempts();
+    attempts.add(attempt);
+    if (attempts.size() > MAX_ATTEMPTS_KEPT) {
+      attempts.subList(0, attempts.size() - MAX_ATTEMPTS_KEPT).clear();
+    }
+    if (attempt.isSuccess()) {
+      profile.setJdk(attempt.getJdk());
+      profile.setCommand(attempt.getCommand());
+    } else if (Objects.equals(profile.getJdk(), attempt.getJdk())) {
+      // The known-good JDK stopped working, e.g. after a change of its path in the settings
+      profile.setJdk(null);
+      profile.setCommand(null);
+    }
+    save();
+  }
+
+  /**
+   * Orders the JDKs by their success rate with the tool over all recorded attempts, best first.
+   * Rates are smoothed so a JDK never tried ranks as 50%; ties keep the given order.
+   */
+  public synchronized List<String> orderBySuccessRate(String tool, List<String> jdks) {
+    Map<String, int[]> counts = new LinkedHashMap<>();
+    profiles.values().stream()
+        .flatMap(profile -> profile.getAttempts().stream())
+        .filter(attempt -> tool.equals(attempt.getTool()))
+        .forEach(attempt -> {
+          int[] count = counts.computeIfAbsent(attempt.getJdk(), k -> new int[2]);
+          count[0] += attempt.isSuccess() ? 1 : 0;
+          count[1]++;
+        });
+    return jdks.stream()
+        .sorted(Comparator.comparingDouble((String jdk) -> {
+          int[] count = counts.getOrDefault(jdk, new int[2]);
+          return (count[0] + 1.0) / (count[1] + 2.0);
+        }).reversed())
+        .toList();
+  }
+
+  /**
+   * Average duration of the successful builds in the mode over all repositories, or null when
+   * none was recorded.
+   */
+  public synchronized Long averageSuccessMillis(BuildMode mode) {
+    OptionalDouble average = profiles.values().stream()
+        .flatMap(profile -> profile.getAttempts().stream())
+        .filter(attempt -> attempt.isSuccess() && mode == attempt.getMode())
+        .mapToLong(BuildAttempt::getDurationMillis)
+        .average();
+    return average.isPresent() ? Math.round(average.getAsDouble()) : null;
+  }
+
+  private static String key(String repository, String revision) {
+    return repository + "@" + (revision == null ? "unknown" : revision);
+  }
+
+  private void save() {
+    try {
+      Path temp = Files.createTempFile(file.getParent(), "profiles", ".tmp");
+      MAPPER.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), profiles);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not write build profiles {}: {}", file, e.getMessage());
+    }
+  }
+}
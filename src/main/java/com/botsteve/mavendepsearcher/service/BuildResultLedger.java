@@ -0,0 +1,85 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.sha256Hex;
+
+import java.io.File;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the inputs of the last successful build of each repository, so a repository whose
+ * inputs did not change is reported up-to-date instead of being built again.
+ *
+ * The inputs are fingerprinted: the checked-out commit (only for an unmodified working tree), the
+ * build command, the JDK path, the environment variables the build tools read and the inputs of
+ * the repositories it depends on. Entries are keyed by the repository's absolute path.
+ */
+public class BuildResultLedger {
+
+  private static final String LEDGER_DIR = "build-ledger";
+  private static final String LEDGER_FILE = "ledger.properties";
+  private static final String STATUS_SUFFIX = "#status";
+  private static final List<String> BUILD_ENVIRONMENT = List.of("MAVEN_HOME", "M2_HOME", "MAVEN_OPTS", "MAVEN_ARGS",
+                                                                "GRADLE_HOME", "GRADLE_USER_HOME", "GRADLE_OPTS",
+                                                                "ANT_HOME", "ANT_OPTS", "JAVA_TOOL_OPTIONS");
+
+  private final Properties entries;
+
+  private BuildResultLedger(Properties entries) {
+    this.entries = entries;
+  }
+
+  public static BuildResultLedger load() {
+    return new BuildResultLedger(AppDataProperties.load(LEDGER_DIR, LEDGER_FILE));
+  }
+
+  /**
+   * Fingerprints the inputs of a build, or returns null when the repository has local changes or
+   * is not a git repository, in which case it is always built.
+   *
+   * @param upstreamFingerprints fingerprints of the repositories this one depends on, in any order
+   */
+  public static String fingerprint(File repo, String command, String jdkPath, List<String> upstreamFingerprints) {
+    String commit = GitDownloadService.cleanHeadCommit(repo);
+    if (commit == null || upstreamFingerprints.stream().anyMatch(Objects::isNull)) return null;
+    String environment = BUILD_ENVIRONMENT.stream()
+        .map(name -> name + "=" + Objects.toString(System.getenv(name), ""))
+        .collect(Collectors.joining("\n"));
+    String upstream = upstreamFingerprints.stream().sorted().collect(Collectors.joining(","));
+    return sha256Hex(String.join("\n", commit, command, jdkPath, environment, upstream));
+  }
+
+  /**
+   * Returns the status of the last successful build when its fingerprint matches, otherwise null.
+   */
+  public synchronized String upToDateStatus(File repo, String fingerprint) {
+    if (fingerprint == null || !fingerprint.equals(entries.getProperty(key(repo)))) return null;
+    return entries.getProperty(key(repo) + STATUS_SUFFIX);
+  }
+
+  public synchronized void recordSuccess(File repo, String fingerprint, String status) {
+    if (fingerprint == null) {
+      forget(repo);
+      return;
+    }
+    entries.setProperty(key(repo), fingerprint);
+    entries.setProperty(key(repo) + STATUS_SUFFIX, status);
+    store();
+  }
+
+  public synchronized void forget(File repo) {
+    if (entries.remove(key(repo)) != null | entries.remove(key(repo) + STATUS_SUFFIX) != null) {
+      store();
+    }
+  }
+
+  private static String key(File repo) {
+    return repo.getAbsolutePath();
+  }
+
+  private void store() {
+    AppDataProperties.store(LEDGER_DIR, LEDGER_FILE, entries, "Fingerprints of the last successful build per repository");
+  }
+}
@@ -0,0 +1,161 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getIntSetting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs repository builds concurrently on a bounded thread pool.
+ *
+ * A build is admitted while fewer than {@link #BUILD_CONCURRENCY} builds run and the heap it
+ * declares fits in what is left of {@link #BUILD_MEMORY_BUDGET_MB} next to the running builds; a
+ * build larger than the whole budget still runs, alone. Builds are started in the given order,
+ * skipping over those that do not fit yet. A failed build is reported in its outcome and does
+ * not stop the others.
+ */
+@Slf4j
+public class BuildScheduler {
+
+  public static final String BUILD_CONCURRENCY = "BUILD_CONCURRENCY";
+  public static final String BUILD_MEMORY_BUDGET_MB = "BUILD_MEMORY_BUDGET_MB";
+
+  private static final long POLL_MILLIS = 500;
+  private static final int CORES_PER_BUILD = 4;
+  private static final int MAX_DEFAULT_CONCURRENCY = 8;
+
+  @Value
+  public static class Build<T> {
+    String name;
+    /**
+     * Heap the build's JVMs are expected to use together, in MB.
+     */
+    long heapMb;
+    Callable<T> work;
+  }
+
+  public interface Listener<T> {
+    default void started(Build<T> build) {
+    }
+
+    default void finished(Outcome<T> outcome, int completed, int total) {
+    }
+  }
+
+  @Value
+  public static class Outcome<T> {
+    String name;
+    T result;
+    Exception failure;
+    long wallTimeMillis;
+
+    public boolean isSuccess() {
+      return failure == null;
+    }
+  }
+
+  private final int concurrency;
+  private final long memoryBudgetMb;
+
+  public BuildScheduler(int concurrency, long memoryBudgetMb) {
+    this.concurrency = Math.max(1, concurrency);
+    this.memoryBudgetMb = memoryBudgetMb;
+  }
+
+  /**
+   * Defaults to one build per 4 cores (at most 8) and three quarters of the physical memory.
+   */
+  public static BuildScheduler fromSettings() {
+    return new BuildScheduler(getIntSetting(BUILD_CONCURRENCY, defaultConcurrency()),
+                              getIntSetting(BUILD_MEMORY_BUDGET_MB, defaultMemoryBudgetMb()));
+  }
+
+  public <T> List<Outcome<T>> run(List<Build<T>> builds, Listener<T> listener, BooleanSupplier cancelled) {
+    log.info("Scheduling {} builds, {} at a time within {} MB of heap", builds.size(), concurrency, memoryBudgetMb);
+    List<Build<T>> pending = new ArrayList<>(builds);
+    List<Outcome<T>> outcomes = new ArrayList<>();
+    int running = 0;
+    long reservedMb = 0;
+    Map<String, Long> reservations = new HashMap<>();
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+      Thread thread = new Thread(runnable, "build-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    CompletionService<Outcome<T>> completion = new ExecutorCompletionService<>(executor);
+
+    try {
+      while ((!pending.isEmpty() || running > 0) && !cancelled.getAsBoolean()) {
+        for (Build<T> build : new ArrayList<>(pending)) {
+          if (running >= concurrency) break;
+          if (running > 0 && reservedMb + build.heapMb > memoryBudgetMb) continue;
+
+          pending.remove(build);
+          running++;
+          reservedMb += build.heapMb;
+          reservations.put(build.name, build.heapMb);
+          listener.started(build);
+          completion.submit(() -> execute(build));
+        }
+
+        Future<Outcome<T>> done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (done == null) continue;
+
+        Outcome<T> outcome = done.get();
+        running--;
+        reservedMb -= reservations.remove(outcome.name);
+        outcomes.add(outcome);
+        listener.finished(outcome, outcomes.size(), builds.size());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // execute() catches everything the build throws, so this is a programming error
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      // Interrupts running builds, which kill their processes
+      executor.shutdownNow();
+    }
+    log.info("Finished {} of {} builds, {} failed", outcomes.size(), builds.size(),
+             outcomes.stream().filter(outcome -> !outcome.isSuccess()).count());
+    return outcomes;
+  }
+
+  private static <T> Outcome<T> execute(Build<T> build) {
+    long start = System.currentTimeMillis();
+    try {
+      return new Outcome<>(build.name, build.work.call(), null, System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      return new Outcome<>(build.name, null, e, System.currentTimeMillis() - start);
+    }
+  }
+
+  private static int defaultConcurrency() {
+    return Math.min(MAX_DEFAULT_CONCURRENCY, Math.max(1, Runtime.getRuntime().availableProcessors() / CORES_PER_BUILD));
+  }
+
+  private static int defaultMemoryBudgetMb() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean hotspot) {
+      return (int) Math.min(Integer.MAX_VALUE, hotspot.getTotalMemorySize() / (1024 * 1024) * 3 / 4);
+    }
+    return Integer.MAX_VALUE;
+  }
+}
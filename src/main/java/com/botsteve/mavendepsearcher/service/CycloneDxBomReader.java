@@ -0,0 +1,283 @@
+package com.botsteve.mavendepsearcher.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.BomComponent;
+import com.botsteve.mavendepsearcher.model.CycloneDxBom;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+
+/**
+ * Streaming reader for CycloneDX JSON BOMs, shared by the Maven and Gradle paths.
+ *
+ * Only group/name/version/scope, the vcs reference, properties and the dependency graph are
+ * kept; everything else (hashes, licenses, descriptions) is skipped token by token, so memory
+ * stays proportional to the number of components rather than to the size of the file.
+ */
+@Slf4j
+public class CycloneDxBomReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  public static CycloneDxBom read(File bomFile) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(bomFile)) {
+      return read(parser);
+    }
+  }
+
+  public static CycloneDxBom read(InputStream bomStream) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(bomStream)) {
+      return read(parser);
+    }
+  }
+
+  private static CycloneDxBom read(JsonParser parser) throws IOException {
+    CycloneDxBom bom = new CycloneDxBom();
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("CycloneDX BOM must be a JSON object");
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "metadata" -> readMetadata(parser, bom);
+        case "components" -> readComponents(parser, bom);
+        case "dependencies" -> readDependencies(parser, bom);
+        default -> parser.skipChildren();
+      }
+      if (value == null) break;
+    }
+
+    log.debug("Read {} components and {} dependency entries from BOM", bom.getComponents().size(),
+              bom.getDependencies().size());
+    return bom;
+  }
+
+  private static void readMetadata(JsonParser parser, CycloneDxBom bom) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      if ("component".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+        // The root component is the project itself, only its reference is needed
+        BomComponent root = readComponent(parser, bom, false);
+        bom.setRootRef(root.getBomRef());
+      } else {
+        parser.skipChildren();
+      }
+    }
+  }
+
+  private static void readComponents(JsonParser parser, CycloneDxBom bom) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      BomComponent component = readComponent(parser, bom, true);
+      String key = component.getBomRef() != null ? component.getBomRef() : component.getCoordinates();
+      bom.getComponents().putIfAbsent(key, component);
+    }
+  }
+
+  /**
+   * Reads one component object; nested "components" are registered on the BOM as well when
+   * registerNested is set.
+   */
+  private static BomComponent readComponent(JsonParser parser, CycloneDxBom bom, boolean registerNested)
+      throws IOException {
+    BomComponent component = new BomComponent();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "bom-ref" -> component.setBomRef(parser.getValueAsString());
+        case "group" -> component.setGroup(parser.getValueAsString());
+        case "name" -> component.setName(parser.getValueAsString());
+        case "version" -> component.setVersion(parser.getValueAsString());
+        case "scope" -> component.setScope(parser.getValueAsString());
+        case "externalReferences" -> readVcsReference(parser, component);
+        case "properties" -> readProperties(parser, component);
+        case "components" -> {
+          if (registerNested) {
+            readComponents(parser, bom);
+          } else {
+            parser.skipChildren();
+          }
+        }
+        default -> parser.skipChildren();
+      }
+    }
+    return component;
+  }
+
+  private static void readVcsReference(JsonParser parser, BomComponent component) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String type = null;
+      String url = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "type" -> type = parser.getValueAsString();
+          case "url" -> url = parser.getValueAsString();
+          default -> parser.skipChildren();
+        }
+      }
+      if ("vcs".equals(type) && url != null && !url.isEmpty() && component.getVcsUrl() == null) {
+        component.setVcsUrl(url);
+      }
+    }
+  }
+
+  private static void readProperties(JsonParser parser, BomComponent component) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String name = null;
+      String value = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        parser.nextToken();
+        switch (field) {
+          case "name" -> name = parser.getValueAsString();
+          case "value" -> value = parser.getValueAsString();
+          default -> parser.skipChildren();
+        }
+      }
+      if (name != null && value != null) {
+        component.getProperties().putIfAbsent(name, value);
+      }
+    }
+  }
+
+  private static void readDependencies(JsonParser parser, CycloneDxBom bom) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String ref = null;
+      List<String> dependsOn = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if ("ref".equals(field)) {
+          ref = parser.getValueAsString();
+        } else if ("dependsOn".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.VALUE_STRING) {
+            dependsOn.add(parser.getText());
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (ref != null) {
+        bom.getDependencies().computeIfAbsent(ref, k -> new ArrayList<>()).addAll(dependsOn);
+      }
+    }
+  }
+
+  /**
+   * Turns the BOM into a dependency tree of {@link DependencyNode}s.
+   *
+   * Top-level nodes are the direct dependencies of the root component; components the graph
+   * does not reach from there are added at the top level so nothing is lost. Like
+   * {@code dependency:tree}, a component's dependencies are expanded at its nearest occurrence
+   * only, the top level for direct dependencies and the first one otherwise, other occurrences
+   * are leaves; every occurrence gets a node of its own from the mapper,
+   * so the result is a tree whose size stays linear in the number of edges. Edges closing a cycle
+   * are dropped. Components the mapper returns null for are left out, their own dependencies
+   * then surface at the top level.
+   */
+  public static Set<DependencyNode> buildDependencyTree(CycloneDxBom bom, Function<BomComponent, DependencyNode> mapper) {
+    Set<String> mapped = new HashSet<>();
+    bom.getComponents().forEach((ref, component) -> {
+      if (mapper.apply(component) != null) mapped.add(ref);
+    });
+
+    Set<String> roots = new LinkedHashSet<>();
+    List<String> rootDependencies = bom.getRootRef() == null ? null : bom.getDependencies().get(bom.getRootRef());
+    if (rootDependencies != null) {
+      roots.addAll(rootDependencies);
+    } else if (!bom.getDependencies().isEmpty()) {
+      // No root entry: components nothing else depends on are the direct dependencies
+      Set<String> dependedOn = new HashSet<>();
+      bom.getDependencies().values().forEach(dependedOn::addAll);
+      bom.getComponents().keySet().stream().filter(ref -> !dependedOn.contains(ref)).forEach(roots::add);
+    }
+
+    TreeBuilder builder = new TreeBuilder(bom, mapper, mapped, roots);
+    Set<DependencyNode> topLevel = new LinkedHashSet<>();
+    for (String ref : roots) {
+      if (mapped.contains(ref)) {
+        topLevel.add(builder.occurrence(ref, new HashSet<>()));
+      }
+    }
+    for (String ref : bom.getComponents().keySet()) {
+      if (mapped.contains(ref) && !builder.expanded.contains(ref) && !ref.equals(bom.getRootRef())) {
+        topLevel.add(builder.occurrence(ref, new HashSet<>()));
+      }
+    }
+    return topLevel;
+  }
+
+  private static class TreeBuilder {
+    final CycloneDxBom bom;
+    final Function<BomComponent, DependencyNode> mapper;
+    final Set<String> mapped;
+    /**
+     * The direct dependencies, expanded at the top level only.
+     */
+    final Set<String> roots;
+    /**
+     * Components whose dependencies are already in the tree.
+     */
+    final Set<String> expanded = new HashSet<>();
+
+    TreeBuilder(CycloneDxBom bom, Function<BomComponent, DependencyNode> mapper, Set<String> mapped,
+                Set<String> roots) {
+      this.bom = bom;
+      this.mapper = mapper;
+      this.mapped = mapped;
+      this.roots = roots;
+    }
+
+    DependencyNode occurrence(String ref, Set<String> path) {
+      DependencyNode node = mapper.apply(bom.getComponents().get(ref));
+      if (!expanded.add(ref)) return node;
+      path.add(ref);
+      for (String childRef : bom.getDependencies().getOrDefault(ref, List.of())) {
+        if (!mapped.contains(childRef) || path.contains(childRef) || childRef.equals(bom.getRootRef())) continue;
+        if (node.getChildren() == null) {
+          node.setChildren(new ArrayList<>());
+        }
+        node.getChildren().add(roots.contains(childRef)
+                               ? mapper.apply(bom.getComponents().get(childRef))
+                               : occurrence(childRef, path));
+      }
+      path.remove(ref);
+      return node;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.DependencyAnalysis;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
 import com.botsteve.mavendepsearcher.model.ProjectType;
 
@@ -26,12 +27,21 @@ public class DependencyAnalyzerService {
    * Detects the project type and delegates to the appropriate analyzer.
    */
   public static Set<DependencyNode> getDependencies(String projectDir) throws Exception {
+    return analyze(projectDir, true).getDependencies();
+  }
+
+  /**
+   * Same as {@link #getDependencies(String)}, also telling where the dependencies came from; when
+   * allowFastPath is false, static shortcuts such as Gradle lockfiles are skipped and the build
+   * tool is always executed.
+   */
+  public static DependencyAnalysis analyze(String projectDir, boolean allowFastPath) throws Exception {
     ProjectType projectType = ProjectType.detect(new File(projectDir));
     log.info("Detected project type: {} for directory: {}", projectType, projectDir);
 
     return switch (projectType) {
-      case MAVEN -> getMavenDependencies(projectDir);
-      case GRADLE -> GradleDependencyAnalyzerService.getDependencies(projectDir);
+      case MAVEN -> new DependencyAnalysis(getMavenDependencies(projectDir), DependencyAnalysis.Source.MAVEN);
+      case GRADLE -> GradleDependencyAnalyzerService.analyze(projectDir, allowFastPath);
       default -> throw new com.botsteve.mavendepsearcher.exception.DepViewerException(
           "No recognizable build file found (pom.xml, build.gradle, settings.gradle). " +
           "Please open the root directory of a Maven or Gradle project.");
@@ -0,0 +1,118 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+import static com.botsteve.mavendepsearcher.utils.Utils.sha256Hex;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.DownloadJournalEntry;
+import com.botsteve.mavendepsearcher.model.DownloadState;
+
+/**
+ * Per-project record of the state of every repository download, written through on each
+ * transition so an interrupted run (app closed, network lost) can be resumed: repositories
+ * already checked out at the requested version are skipped and half-done ones are repaired.
+ */
+@Slf4j
+public class DownloadJournal {
+
+  private static final String JOURNAL_DIR = "download-journal";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Path file;
+  private final Map<String, DownloadJournalEntry> entries;
+
+  private DownloadJournal(Path file, Map<String, DownloadJournalEntry> entries) {
+    this.file = file;
+    this.entries = entries;
+  }
+
+  public static DownloadJournal open(String projectName) {
+    String name = projectName == null || projectName.isEmpty() ? "default" : projectName;
+    Path file = getAppDataPath(JOURNAL_DIR).resolve(sha256Hex(name).substring(0, 16) + ".json");
+    Map<String, DownloadJournalEntry> entries = new LinkedHashMap<>();
+    if (Files.exists(file)) {
+      try {
+        entries.putAll(MAPPER.readValue(file.toFile(), new TypeReference<Map<String, DownloadJournalEntry>>() {
+        }));
+      } catch (IOException e) {
+        log.warn("Ignoring unreadable download journal {}: {}", file, e.getMessage());
+      }
+    }
+    return new DownloadJournal(file, entries);
+  }
+
+  public synchronized DownloadJournalEntry get(String uri) {
+    return entries.get(uri);
+  }
+
+  /**
+   * Returns true when the recorded entry says the repository is checked out at this version.
+   */
+  public synchronized boolean isCheckedOut(String uri, String version) {
+    DownloadJournalEntry entry = entries.get(uri);
+    return entry != null && entry.getState() == DownloadState.CHECKED_OUT && version.equals(entry.getVersion());
+  }
+
+  /**
+   * Returns true when the last run stopped with a repository half-way, cloning or fetched but
+   * not checked out.
+   */
+  public synchronized boolean isInterrupted() {
+    return entries.values().stream()
+        .anyMatch(entry -> entry.getState() == DownloadState.CLONING || entry.getState() == DownloadState.FETCHED);
+  }
+
+  /**
+   * Marks the repositories about to be downloaded as queued. Entries already recorded for the
+   * same version keep their state, so the download knows how far the previous run got.
+   */
+  public synchronized void queue(Map<String, String> uriToVersion) {
+    long now = System.currentTimeMillis();
+    uriToVersion.forEach((uri, version) -> {
+      DownloadJournalEntry entry = entries.get(uri);
+      if (entry == null || !version.equals(entry.getVersion())) {
+        entries.put(uri, new DownloadJournalEntry(uri, version, DownloadState.QUEUED, null, null, now));
+      }
+    });
+    save();
+  }
+
+  public synchronized void update(String uri, String version, DownloadState state, String tag) {
+    entries.put(uri, new DownloadJournalEntry(uri, version, state, tag, null, System.currentTimeMillis()));
+    save();
+  }
+
+  /**
+   * Records a failure, keeping the state reached so the next run resumes from there.
+   */
+  public synchronized void failed(String uri, String message) {
+    DownloadJournalEntry entry = entries.get(uri);
+    if (entry == null) return;
+    entry.setError(message);
+    entry.setUpdatedAt(System.currentTimeMillis());
+    save();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    save();
+  }
+
+  private void save() {
+    try {
+      Path temp = Files.createTempFile(file.getParent(), "journal", ".tmp");
+      MAPPER.writeValue(temp.toFile(), entries);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("Could not write download journal {}: {}", file, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package com.botsteve.mavendepsearcher.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ProgressMonitor;
+
+/**
+ * Aggregates the progress of concurrent repository downloads.
+ *
+ * Every download reports objects through its own JGit {@link ProgressMonitor}; bytes are taken
+ * from the growth of the repository on disk, sampled once a second, as JGit does not expose
+ * transferred bytes. Each tick publishes the overall fraction and a status line with the
+ * aggregate MB/s and an ETA; {@link #summaryTable()} lists every repository afterwards, slowest
+ * first, to spot slow mirrors.
+ */
+@Slf4j
+public class DownloadProgress {
+
+  private static final String RECEIVING_OBJECTS = "Receiving objects";
+  private static final long TICK_MILLIS = 1000;
+  private static final double MEGABYTE = 1024.0 * 1024.0;
+
+  private final int total;
+  private final ToLongFunction<String> sizeProbe;
+  private final BooleanSupplier cancelled;
+  private final BiConsumer<Double, String> onUpdate;
+  private final Map<String, RepoStats> repos = new ConcurrentHashMap<>();
+  private final long startMillis = System.currentTimeMillis();
+  private ScheduledExecutorService ticker;
+
+  /**
+   * @param onUpdate receives the overall fraction done (0..1) and a status line on every tick
+   */
+  public DownloadProgress(int total, ToLongFunction<String> sizeProbe, BooleanSupplier cancelled,
+                          BiConsumer<Double, String> onUpdate) {
+    this.total = total;
+    this.sizeProbe = sizeProbe;
+    this.cancelled = cancelled;
+    this.onUpdate = onUpdate;
+  }
+
+  public void start() {
+    ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "download-progress");
+      thread.setDaemon(true);
+      return thread;
+    });
+    ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  public void stop() {
+    if (ticker != null) {
+      ticker.shutdownNow();
+    }
+    tick();
+  }
+
+  /**
+   * Registers a download (or a retry of it) and returns the monitor to pass to JGit.
+   */
+  public ProgressMonitor started(String uri, int attempt) {
+    RepoStats stats = new RepoStats(uri, attempt, sizeProbe.applyAsLong(uri));
+    repos.put(uri, stats);
+    return stats;
+  }
+
+  /**
+   * Returns the monitor of a running download, so nested JGit calls report into the same entry.
+   */
+  public ProgressMonitor monitor(String uri) {
+    RepoStats stats = repos.get(uri);
+    return stats != null ? stats : NullProgressMonitor.INSTANCE;
+  }
+
+  public void finished(String uri, boolean success) {
+    RepoStats stats = repos.get(uri);
+    if (stats == null) return;
+    stats.bytes = Math.max(0, sizeProbe.applyAsLong(uri) - stats.baseSize);
+    stats.endMillis = System.currentTimeMillis();
+    stats.success = success;
+    log.info("Downloaded {} in {} ms: {} objects, {} ({})", uri, stats.durationMillis(), stats.objects,
+             formatMegabytes(stats.bytes), formatRate(stats.bytes, stats.durationMillis()));
+  }
+
+  public double fractionDone() {
+    if (total == 0) return 1;
+    double done = repos.values().stream().mapToDouble(RepoStats::fractionDone).sum();
+    return Math.min(1, done / total);
+  }
+
+  /**
+   * One line per repository, slowest download first.
+   */
+  public String summaryTable() {
+    List<RepoStats> sorted = repos.values().stream()
+        .sorted(Comparator.comparingLong(RepoStats::durationMillis).reversed())
+        .toList();
+    StringBuilder table = new StringBuilder(String.format("%-40s %8s %10s %8s %10s %8s %s%n",
+                                                          "Repository", "Status", "Objects", "MB", "Time (s)",
+                                                          "MB/s", "Attempts"));
+    for (RepoStats stats : sorted) {
+      table.append(String.format("%-40s %8s %10d %8.1f %10.1f %8.2f %d%n",
+                                 abbreviate(GitMirrorStore.mirrorKey(stats.uri), 40),
+                                 stats.endMillis == 0 ? "running" : stats.success ? "ok" : "failed",
+                                 stats.objects, stats.bytes / MEGABYTE, stats.durationMillis() / 1000.0,
+                                 rate(stats.bytes, stats.durationMillis()), stats.attempt));
+    }
+    return table.toString();
+  }
+
+  private void tick() {
+    try {
+      long bytes = 0;
+      for (RepoStats stats : repos.values()) {
+        if (stats.endMillis == 0) {
+          stats.bytes = Math.max(0, sizeProbe.applyAsLong(stats.uri) - stats.baseSize);
+        }
+        bytes += stats.bytes;
+      }
+      long elapsed = System.currentTimeMillis() - startMillis;
+      double fraction = fractionDone();
+      long completed = repos.values().stream().filter(stats -> stats.endMillis != 0).count();
+
+      StringBuilder status = new StringBuilder(String.format("Downloading %d/%d repositories, %s at %s",
+                                                              completed, total, formatMegabytes(bytes),
+                                                              formatRate(bytes, elapsed)));
+      if (fraction > 0 && fraction < 1) {
+        long etaSeconds = (long) (elapsed * (1 - fraction) / fraction / 1000);
+        status.append(String.format(", ETA %d:%02d", etaSeconds / 60, etaSeconds % 60));
+      }
+      onUpdate.accept(fraction, status.toString());
+    } catch (RuntimeException e) {
+      // A failing tick must not cancel the scheduled ticker
+      log.debug("Could not update download progress: {}", e.getMessage());
+    }
+  }
+
+  private static String formatMegabytes(long bytes) {
+    return String.format("%.1f MB", bytes / MEGABYTE);
+  }
+
+  private static String formatRate(long bytes, long millis) {
+    return String.format("%.2f MB/s", rate(bytes, millis));
+  }
+
+  private static double rate(long bytes, long millis) {
+    return bytes / MEGABYTE / (Math.max(millis, 1) / 1000.0);
+  }
+
+  private static String abbreviate(String value, int width) {
+    return value.length() <= width ? value : "..." + value.substring(value.length() - width + 3);
+  }
+
+  private class RepoStats implements ProgressMonitor {
+
+    final String uri;
+    final int attempt;
+    final long baseSize;
+    final long startMillis = System.currentTimeMillis();
+    volatile long endMillis;
+    volatile long bytes;
+    volatile boolean success;
+    volatile boolean receiving;
+    volatile int totalWork;
+    volatile int workDone;
+    volatile int objects;
+
+    RepoStats(String uri, int attempt, long baseSize) {
+      this.uri = uri;
+      this.attempt = attempt;
+      this.baseSize = baseSize;
+    }
+
+    long durationMillis() {
+      return (endMillis == 0 ? System.currentTimeMillis() : endMillis) - startMillis;
+    }
+
+    double fractionDone() {
+      if (endMillis != 0) return 1;
+      if (totalWork <= 0) return 0;
+      return Math.min(1, (double) workDone / totalWork);
+    }
+
+    @Override
+    public void start(int totalTasks) {
+    }
+
+    @Override
+    public void beginTask(String title, int totalWork) {
+      this.receiving = RECEIVING_OBJECTS.equals(title);
+      if (receiving) {
+        this.totalWork = totalWork;
+        this.workDone = 0;
+      }
+    }
+
+    @Override
+    public synchronized void update(int completed) {
+      if (receiving) {
+        workDone += completed;
+        objects += completed;
+      }
+    }
+
+    @Override
+    public void endTask() {
+      if (receiving) {
+        workDone = totalWork;
+        receiving = false;
+      }
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled.getAsBoolean();
+    }
+
+    @Override
+    public void showDuration(boolean enabled) {
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getIntSetting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToLongFunction;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs repository downloads on a dedicated, bounded thread pool.
+ *
+ * Downloads are started largest first, using the repository sizes recorded by previous runs
+ * (repositories never seen before count as large), at most {@link #DOWNLOAD_PER_HOST_CONCURRENCY}
+ * at a time against the same host. A failed download is retried with exponential backoff and,
+ * once out of attempts, reported in the result instead of aborting the others.
+ */
+@Slf4j
+public class DownloadScheduler {
+
+  public static final String DOWNLOAD_CONCURRENCY = "DOWNLOAD_CONCURRENCY";
+  public static final String DOWNLOAD_PER_HOST_CONCURRENCY = "DOWNLOAD_PER_HOST_CONCURRENCY";
+  public static final String DOWNLOAD_MAX_ATTEMPTS = "DOWNLOAD_MAX_ATTEMPTS";
+
+  private static final String SIZE_HISTORY_DIR = "downloads";
+  private static final String SIZE_HISTORY_FILE = "sizes.properties";
+  private static final long RETRY_BACKOFF_MILLIS = 2000;
+  private static final long POLL_MILLIS = 500;
+
+  @FunctionalInterface
+  public interface Download<T> {
+    T download(String uri) throws Exception;
+  }
+
+  public interface Listener<T> {
+    default void started(String uri, int attempt) {
+    }
+
+    default void finished(Outcome<T> outcome, int completed, int total) {
+    }
+  }
+
+  @Value
+  public static class Outcome<T> {
+    String uri;
+    T result;
+    Exception failure;
+    int attempts;
+    long bytes;
+
+    public boolean isSuccess() {
+      return failure == null;
+    }
+  }
+
+  @Value
+  public static class Report<T> {
+    List<Outcome<T>> outcomes;
+    long wallTimeMillis;
+    boolean cancelled;
+
+    public List<Outcome<T>> getFailed() {
+      return outcomes.stream().filter(outcome -> !outcome.isSuccess()).toList();
+    }
+
+    public long getBytes() {
+      return outcomes.stream().mapToLong(Outcome::getBytes).sum();
+    }
+
+    public String describeThroughput() {
+      double seconds = Math.max(wallTimeMillis, 1) / 1000.0;
+      double megabytes = getBytes() / (1024.0 * 1024.0);
+      return String.format("%d repositories, %.1f MB in %.1f s (%.2f repos/s, %.2f MB/s)",
+                           outcomes.size() - getFailed().size(), megabytes, seconds,
+                           (outcomes.size() - getFailed().size()) / seconds, megabytes / seconds);
+    }
+  }
+
+  private final int concurrency;
+  private final int perHostConcurrency;
+  private final int maxAttempts;
+  private final ToLongFunction<String> sizeProbe;
+
+  /**
+   * @param sizeProbe returns the bytes a repository currently takes on disk, measured before and
+   *                  after each download to report throughput and order later runs
+   */
+  public DownloadScheduler(int concurrency, int perHostConcurrency, int maxAttempts, ToLongFunction<String> sizeProbe) {
+    this.concurrency = concurrency;
+    this.perHostConcurrency = perHostConcurrency;
+    this.maxAttempts = maxAttempts;
+    this.sizeProbe = sizeProbe;
+  }
+
+  public static DownloadScheduler fromSettings(ToLongFunction<String> sizeProbe) {
+    return new DownloadScheduler(getIntSetting(DOWNLOAD_CONCURRENCY, 8),
+                                 getIntSetting(DOWNLOAD_PER_HOST_CONCURRENCY, 4),
+                                 getIntSetting(DOWNLOAD_MAX_ATTEMPTS, 3),
+                                 sizeProbe);
+  }
+
+  public <T> Report<T> run(Collection<String> uris, Download<T> download, Listener<T> listener,
+                           BooleanSupplier cancelled) {
+    long start = System.currentTimeMillis();
+    Properties sizeHistory = AppDataProperties.load(SIZE_HISTORY_DIR, SIZE_HISTORY_FILE);
+    List<Job> pending = new ArrayList<>();
+    uris.forEach(uri -> pending.add(new Job(uri, sizeHint(sizeHistory, uri))));
+    pending.sort(Job.LARGEST_FIRST);
+    log.info("Scheduling {} downloads, {} at a time, {} per host", pending.size(), concurrency, perHostConcurrency);
+
+    List<Outcome<T>> outcomes = new ArrayList<>();
+    Map<String, Integer> runningPerHost = new HashMap<>();
+    int running = 0;
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+      Thread thread = new Thread(runnable, "download-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    CompletionService<Attempt<T>> completion = new ExecutorCompletionService<>(executor);
+
+    try {
+      while ((!pending.isEmpty() || running > 0) && !cancelled.getAsBoolean()) {
+        long now = System.currentTimeMillis();
+        long nextRetry = Long.MAX_VALUE;
+        for (Job job : new ArrayList<>(pending)) {
+          if (running >= concurrency) break;
+          if (job.notBefore > now) {
+            nextRetry = Math.min(nextRetry, job.notBefore);
+            continue;
+          }
+          if (runningPerHost.getOrDefault(job.host, 0) >= perHostConcurrency) continue;
+
+          pending.remove(job);
+          running++;
+          runningPerHost.merge(job.host, 1, Integer::sum);
+          job.attempts++;
+          listener.started(job.uri, job.attempts);
+          completion.submit(() -> attempt(job, download));
+        }
+
+        long wait = nextRetry == Long.MAX_VALUE ? POLL_MILLIS : Math.max(1, Math.min(POLL_MILLIS, nextRetry - now));
+        Future<Attempt<T>> done = completion.poll(wait, TimeUnit.MILLISECONDS);
+        if (done == null) continue;
+
+        Attempt<T> attempt = done.get();
+        Job job = attempt.job;
+        running--;
+        runningPerHost.merge(job.host, -1, Integer::sum);
+
+        if (attempt.failure != null && job.attempts < maxAttempts && !cancelled.getAsBoolean()) {
+          long backoff = RETRY_BACKOFF_MILLIS << (job.attempts - 1);
+          log.warn("Download of {} failed (attempt {}/{}), retrying in {} ms: {}", job.uri, job.attempts,
+                   maxAttempts, backoff, attempt.failure.getMessage());
+          job.notBefore = System.currentTimeMillis() + backoff;
+          pending.add(job);
+          pending.sort(Job.LARGEST_FIRST);
+          continue;
+        }
+
+        Outcome<T> outcome = new Outcome<>(job.uri, attempt.result, attempt.failure, job.attempts, attempt.bytes);
+        if (outcome.isSuccess()) {
+          sizeHistory.setProperty(GitMirrorStore.mirrorKey(job.uri), String.valueOf(attempt.sizeAfter));
+        } else {
+          log.error("Download of {} failed after {} attempt(s)", job.uri, job.attempts, attempt.failure);
+        }
+        outcomes.add(outcome);
+        listener.finished(outcome, outcomes.size(), uris.size());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      // attempt() catches everything the download throws, so this is a programming error
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+      AppDataProperties.store(SIZE_HISTORY_DIR, SIZE_HISTORY_FILE, sizeHistory,
+                              "Repository sizes in bytes from previous downloads");
+    }
+
+    Report<T> report = new Report<>(outcomes, System.currentTimeMillis() - start, cancelled.getAsBoolean());
+    log.info("Downloaded {}, {} failed{}", report.describeThroughput(), report.getFailed().size(),
+             report.isCancelled() ? ", cancelled" : "");
+    return report;
+  }
+
+  private <T> Attempt<T> attempt(Job job, Download<T> download) {
+    long sizeBefore = sizeProbe.applyAsLong(job.uri);
+    try {
+      T result = download.download(job.uri);
+      long sizeAfter = sizeProbe.applyAsLong(job.uri);
+      return new Attempt<>(job, result, null, Math.max(0, sizeAfter - sizeBefore), sizeAfter);
+    } catch (Exception e) {
+      return new Attempt<>(job, null, e, 0, 0);
+    }
+  }
+
+  private static long sizeHint(Properties sizeHistory, String uri) {
+    try {
+      return Long.parseLong(sizeHistory.getProperty(GitMirrorStore.mirrorKey(uri), ""));
+    } catch (NumberFormatException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  static String hostOf(String uri) {
+    String key = GitMirrorStore.mirrorKey(uri);
+    int separator = key.indexOf('/');
+    return separator == -1 ? key : key.substring(0, separator);
+  }
+
+  private static class Job {
+    static final Comparator<Job> LARGEST_FIRST = Comparator.comparingLong((Job job) -> job.sizeHint).reversed();
+
+    final String uri;
+    final String host;
+    final long sizeHint;
+    int attempts;
+    long notBefore;
+
+    Job(String uri, long sizeHint) {
+      this.uri = uri;
+      this.host = hostOf(uri);
+      this.sizeHint = sizeHint;
+    }
+  }
+
+  private record Attempt<T>(Job job, T result, Exception failure, long bytes, long sizeAfter) {
+  }
+}
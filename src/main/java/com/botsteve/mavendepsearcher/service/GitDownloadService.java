@@ -0,0 +1,144 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.tasks.CheckoutTagsTask.peeledObjectId;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+
+/**
+ * Downloads only what is needed to check out a dependency's release tag.
+ *
+ * The remote tags are listed first (ls-remote) and filtered with {@link TagResolver}, the same
+ * matching the checkout uses; only the matching tags are then fetched, at depth 1, instead of
+ * the tips of every branch.
+ */
+@Slf4j
+public class GitDownloadService {
+
+  private static final String REMOTE = "origin";
+
+  /**
+   * Returns the remote tags matching the version, without downloading any objects.
+   *
+   * Tags are selected from the ref advertisement alone. Annotated tags are advertised with their
+   * peeled commit, so aliases of the same commit (e.g. v1.2.3 and 1.2.3) are collapsed to one tag
+   * and that commit is fetched once.
+   */
+  public static List<Ref> listMatchingTags(String uri, String version) throws GitAPIException {
+    Collection<Ref> remoteTags = Git.lsRemoteRepository()
+        .setRemote(uri)
+        .setTags(true)
+        .call();
+    Map<ObjectId, Ref> byCommit = new LinkedHashMap<>();
+    TagResolver.matchingTags(uri, version, remoteTags).stream()
+        .sorted(Comparator.comparingInt((Ref ref) -> ref.getName().length()).thenComparing(Ref::getName))
+        .forEach(ref -> byCommit.putIfAbsent(peeledObjectId(ref), ref));
+    List<Ref> matching = List.copyOf(byCommit.values());
+    log.info("{} of {} remote tags of {} match version {}", matching.size(), remoteTags.size(), uri, version);
+    return matching;
+  }
+
+  /**
+   * Fetches the given tags into an existing repository at depth 1, reporting to the monitor.
+   */
+  public static void fetchTags(Git git, List<Ref> tags, ProgressMonitor monitor) throws GitAPIException {
+    List<RefSpec> refSpecs = tags.stream()
+        .map(tag -> new RefSpec("+" + tag.getName() + ":" + tag.getName()))
+        .toList();
+    git.fetch()
+        .setRemote(REMOTE)
+        .setRefSpecs(refSpecs)
+        .setTagOpt(TagOpt.NO_TAGS)
+        .setDepth(1)
+        .setProgressMonitor(monitor)
+        .call();
+  }
+
+  /**
+   * Returns true when the repository already has a tag matching the version, so nothing has to
+   * be downloaded.
+   */
+  public static boolean hasMatchingLocalTag(Git git, String version) throws GitAPIException {
+    return !TagResolver.matchingTags(originUrl(git.getRepository()), version, git.tagList().call()).isEmpty();
+  }
+
+  /**
+   * The URL of the repository's origin remote, or null for repositories without one.
+   */
+  public static String originUrl(Repository repository) {
+    return repository.getConfig().getString("remote", REMOTE, "url");
+  }
+
+  /**
+   * Names the revision checked out in a working tree: a tag pointing at HEAD, otherwise the HEAD
+   * commit id. Returns null when the directory is not a git repository.
+   */
+  public static String describeHead(File dir) {
+    try (Git git = Git.open(dir)) {
+      Repository repository = git.getRepository();
+      ObjectId head = repository.resolve(Constants.HEAD);
+      if (head == null) return null;
+      for (Ref tag : repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS)) {
+        if (head.equals(peeledObjectId(repository.getRefDatabase().peel(tag)))) {
+          return Repository.shortenRefName(tag.getName());
+        }
+      }
+      return head.name();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the HEAD commit id of a working tree whose tracked files are unmodified, or null when
+   * files were changed or the directory is not a git repository. Untracked files, such as build
+   * outputs missing from .gitignore, are not considered.
+   */
+  public static String cleanHeadCommit(File dir) {
+    try (Git git = Git.open(dir)) {
+      ObjectId head = git.getRepository().resolve(Constants.HEAD);
+      if (head == null || !git.status().call().getUncommittedChanges().isEmpty()) return null;
+      return head.name();
+    } catch (IOException | GitAPIException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Removes what an interrupted JGit operation leaves behind in a git directory: *.lock files
+   * (index, HEAD, refs, config, shallow) and incoming_* temporary packs. Only safe while no other
+   * process works on the repository.
+   */
+  public static void removeStaleLocks(Path gitDir) throws IOException {
+    if (!Files.isDirectory(gitDir)) return;
+    List<Path> leftovers;
+    try (Stream<Path> paths = Files.walk(gitDir)) {
+      leftovers = paths.filter(Files::isRegularFile)
+          .filter(path -> path.getFileName().toString().endsWith(".lock")
+              || path.getFileName().toString().startsWith("incoming_"))
+          .toList();
+    }
+    for (Path leftover : leftovers) {
+      Files.deleteIfExists(leftover);
+      log.info("Removed stale {}", leftover);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.fetchTags;
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.listMatchingTags;
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.removeStaleLocks;
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.URIish;
+import com.botsteve.mavendepsearcher.model.RepositoryId;
+import com.botsteve.mavendepsearcher.utils.ForceDeleteUtil;
+
+/**
+ * Global store of bare mirrors, one per {@link RepositoryId}, shared by all projects.
+ *
+ * Mirrors only hold the release tags that were asked for, at depth 1. Per-project checkouts are
+ * thin repositories borrowing the mirror's objects through objects/info/alternates, so a
+ * dependency shared by several projects is downloaded once. Mirrors are never deleted by the
+ * project clean-up, as checkouts depend on them.
+ */
+@Slf4j
+public class GitMirrorStore {
+
+  private static final String MIRRORS_DIR = "git-mirrors";
+  private static final Map<String, Object> MIRROR_LOCKS = new ConcurrentHashMap<>();
+  private static final Set<Path> REPAIRED = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Creates a checkout of the tags matching the version in localRepoDir, fetching into the mirror
+   * only the matching tags it does not have yet. Returns false when no remote tag matches.
+   */
+  public static boolean checkout(String uri, String version, File localRepoDir, ProgressMonitor monitor)
+      throws Exception {
+    String key = mirrorKey(uri);
+    Path mirrorDir = getMirrorDir(uri);
+    List<Ref> tags;
+    synchronized (MIRROR_LOCKS.computeIfAbsent(key, k -> new Object())) {
+      try (Git mirror = openOrCreateMirror(uri, mirrorDir)) {
+        tags = updateMirror(mirror, uri, version, monitor);
+      }
+    }
+    if (tags.isEmpty()) {
+      return false;
+    }
+    createCheckout(uri, mirrorDir, localRepoDir, tags);
+    return true;
+  }
+
+  public static Path getMirrorDir(String uri) {
+    return getAppDataPath(MIRRORS_DIR).resolve(mirrorKey(uri) + ".git");
+  }
+
+  private static Git openOrCreateMirror(String uri, Path mirrorDir) throws Exception {
+    if (Files.exists(mirrorDir.resolve("HEAD"))) {
+      if (REPAIRED.add(mirrorDir)) {
+        // First use in this process: locks left by an interrupted fetch can only be stale
+        removeStaleLocks(mirrorDir);
+      }
+      return Git.open(mirrorDir.toFile());
+    }
+    if (Files.exists(mirrorDir)) {
+      // Interrupted while being created, nothing in it is usable
+      ForceDeleteUtil.moveToTrash(mirrorDir);
+    }
+    Files.createDirectories(mirrorDir);
+    Git mirror = Git.init().setBare(true).setGitDir(mirrorDir.toFile()).call();
+    mirror.remoteAdd().setName("origin").setUri(new URIish(uri)).call();
+    log.info("Created mirror for {} in {}", uri, mirrorDir);
+    return mirror;
+  }
+
+  /**
+   * Returns the mirror's tags matching the version. Only when none is present yet are the matching
+   * remote tags fetched, so every other tag already in the mirror is never downloaded again.
+   */
+  private static List<Ref> updateMirror(Git mirror, String uri, String version, ProgressMonitor monitor)
+      throws Exception {
+    List<Ref> present = matchingTags(mirror.getRepository(), uri, version);
+    if (!present.isEmpty()) {
+      log.info("Mirror of {} already holds {} tag(s) for {}, nothing to download", uri, present.size(), version);
+      return present;
+    }
+
+    List<Ref> remoteTags = listMatchingTags(uri, version);
+    if (!remoteTags.isEmpty()) {
+      long start = System.currentTimeMillis();
+      fetchTags(mirror, remoteTags, monitor);
+      log.info("Fetched {} tag(s) of {} into the mirror in {} ms", remoteTags.size(), uri, System.currentTimeMillis() - start);
+    }
+    return matchingTags(mirror.getRepository(), uri, version);
+  }
+
+  private static List<Ref> matchingTags(Repository repository, String uri, String version) throws IOException {
+    return TagResolver.matchingTags(uri, version, repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS));
+  }
+
+  /**
+   * Initialises localRepoDir with the mirror as alternate object store, the mirror's shallow
+   * boundary and the given tag refs; no objects are copied.
+   */
+  private static void createCheckout(String uri, Path mirrorDir, File localRepoDir, List<Ref> tags) throws Exception {
+    Path gitDir;
+    try (Git checkout = Git.init().setDirectory(localRepoDir).call()) {
+      checkout.remoteAdd().setName("origin").setUri(new URIish(uri)).call();
+      gitDir = checkout.getRepository().getDirectory().toPath();
+    }
+
+    Path objectsInfo = Files.createDirectories(gitDir.resolve("objects/info"));
+    Files.writeString(objectsInfo.resolve("alternates"), mirrorDir.resolve("objects").toAbsolutePath() + "\n");
+    Path mirrorShallow = mirrorDir.resolve("shallow");
+    if (Files.exists(mirrorShallow)) {
+      Files.copy(mirrorShallow, gitDir.resolve("shallow"));
+    }
+
+    // Reopen so the object database picks up the alternates
+    try (Git checkout = Git.open(localRepoDir)) {
+      for (Ref tag : tags) {
+        RefUpdate update = checkout.getRepository().updateRef(tag.getName());
+        update.setNewObjectId(tag.getObjectId());
+        update.setForceUpdate(true);
+        update.update();
+      }
+    }
+    log.info("Created checkout of {} in {} from mirror {}", uri, localRepoDir, mirrorDir);
+  }
+
+  /**
+   * Relative path of the repository's mirror, see {@link RepositoryId#getKey()}.
+   */
+  static String mirrorKey(String uri) {
+    return RepositoryId.parse(uri).getKey();
+  }
+}
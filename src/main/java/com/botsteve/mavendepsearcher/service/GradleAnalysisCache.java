@@ -0,0 +1,215 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+import static com.botsteve.mavendepsearcher.utils.Utils.getBooleanSetting;
+import static com.botsteve.mavendepsearcher.utils.Utils.sha256Hex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.BomComponent;
+import com.botsteve.mavendepsearcher.model.CycloneDxBom;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.model.GradleAnalysisCacheEntry;
+
+/**
+ * Persistent cache of Gradle analysis results under the app data directory.
+ *
+ * Entries are keyed by project directory and only used while the fingerprint of the build
+ * files (settings, build scripts, gradle.properties, version catalogs, lockfiles, the wrapper
+ * version and buildSrc) is unchanged, so an untouched project never starts Gradle twice.
+ */
+@Slf4j
+public class GradleAnalysisCache {
+
+  public static final String GRADLE_ANALYSIS_CACHE = "GRADLE_ANALYSIS_CACHE";
+
+  private static final String CACHE_DIR = "gradle-analysis-cache";
+  private static final Set<String> SKIPPED_DIRS = Set.of(".git", ".gradle", ".idea", "build", "out", "node_modules");
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String ROOT_REF = "project";
+
+  public static boolean isEnabled() {
+    return getBooleanSetting(GRADLE_ANALYSIS_CACHE, true);
+  }
+
+  /**
+   * Hashes the files that define the build. The salt covers inputs outside the project, such
+   * as the analyzer's plugin versions. Returns null if the tree cannot be read.
+   */
+  public static String fingerprint(File projectDir, String salt) {
+    Path root = projectDir.toPath();
+    TreeMap<String, Path> buildFiles = new TreeMap<>();
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          return !dir.equals(root) && SKIPPED_DIRS.contains(dir.getFileName().toString())
+              ? FileVisitResult.SKIP_SUBTREE
+              : FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+          if (isBuildFile(relative)) {
+            buildFiles.put(relative, file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(salt.getBytes());
+      for (var entry : buildFiles.entrySet()) {
+        digest.update((entry.getKey() + '\0').getBytes());
+        digest.update(Files.readAllBytes(entry.getValue()));
+      }
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (IOException | NoSuchAlgorithmException e) {
+      log.warn("Could not fingerprint Gradle build in {}: {}", projectDir, e.getMessage());
+      return null;
+    }
+  }
+
+  private static boolean isBuildFile(String relativePath) {
+    String name = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    return relativePath.startsWith("buildSrc/")
+           || name.endsWith(".gradle") || name.endsWith(".gradle.kts")
+           || name.equals("gradle.properties") || name.equals("gradle-wrapper.properties")
+           || name.endsWith(".versions.toml") || name.endsWith(".lockfile");
+  }
+
+  /**
+   * Returns the cached result for the project, or null on a miss or a stale fingerprint.
+   */
+  public static GradleAnalysisCacheEntry load(File projectDir, String fingerprint) {
+    if (fingerprint == null) return null;
+    Path file = cacheFile(projectDir, ".json");
+    if (!Files.exists(file)) return null;
+    try {
+      GradleAnalysisCacheEntry entry = MAPPER.readValue(file.toFile(), GradleAnalysisCacheEntry.class);
+      if (!fingerprint.equals(entry.getFingerprint()) || entry.getGraph() == null) {
+        log.info("Cached Gradle analysis of {} is stale", projectDir);
+        return null;
+      }
+      return entry;
+    } catch (IOException e) {
+      log.warn("Ignoring unreadable Gradle analysis cache {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  public static void store(File projectDir, String fingerprint, long durationMillis,
+                           Set<DependencyNode> dependencies) {
+    if (fingerprint == null) return;
+    try {
+      GradleAnalysisCacheEntry entry = new GradleAnalysisCacheEntry(fingerprint, durationMillis, toGraph(dependencies));
+      writeAtomically(cacheFile(projectDir, ".json"), MAPPER.writeValueAsString(entry));
+    } catch (IOException e) {
+      log.warn("Could not cache Gradle analysis of {}: {}", projectDir, e.getMessage());
+    }
+  }
+
+  /**
+   * Rebuilds the dependency tree of a cached entry the way a fresh CycloneDX analysis builds it.
+   */
+  public static Set<DependencyNode> dependencies(GradleAnalysisCacheEntry entry) {
+    return CycloneDxBomReader.buildDependencyTree(entry.getGraph(), component -> {
+      DependencyNode node = new DependencyNode(component.getGroup(), component.getName(), component.getVersion(),
+                                               component.getScope());
+      node.setScmUrl(component.getVcsUrl());
+      return node;
+    });
+  }
+
+  /**
+   * Flattens a dependency tree into a graph holding every dependency once, so a dependency
+   * repeated across the tree is not written once per path.
+   */
+  static CycloneDxBom toGraph(Set<DependencyNode> dependencies) {
+    CycloneDxBom graph = new CycloneDxBom();
+    graph.setRootRef(ROOT_REF);
+    graph.getDependencies().put(ROOT_REF, addNodes(dependencies, graph));
+    return graph;
+  }
+
+  private static List<String> addNodes(Collection<DependencyNode> nodes, CycloneDxBom graph) {
+    List<String> refs = new ArrayList<>();
+    for (DependencyNode node : nodes) {
+      String ref = String.join(":", Objects.toString(node.getGroupId(), ""), Objects.toString(node.getArtifactId(), ""),
+                               Objects.toString(node.getVersion(), ""), Objects.toString(node.getScope(), ""));
+      if (!refs.contains(ref)) refs.add(ref);
+      graph.getComponents().computeIfAbsent(ref, k -> {
+        BomComponent component = new BomComponent();
+        component.setBomRef(ref);
+        component.setGroup(node.getGroupId());
+        component.setName(node.getArtifactId());
+        component.setVersion(node.getVersion());
+        component.setScope(node.getScope());
+        component.setVcsUrl(node.getScmUrl());
+        return component;
+      });
+      if (node.getChildren() != null && !node.getChildren().isEmpty()) {
+        List<String> edges = graph.getDependencies().computeIfAbsent(ref, k -> new ArrayList<>());
+        for (String child : addNodes(node.getChildren(), graph)) {
+          if (!edges.contains(child)) edges.add(child);
+        }
+      }
+    }
+    return refs;
+  }
+
+  /**
+   * Returns the subproject paths recorded by a previous `gradle projects` run for the same
+   * fingerprint, or null.
+   */
+  public static List<String> loadSubprojects(File projectDir, String fingerprint) {
+    if (fingerprint == null) return null;
+    Path file = cacheFile(projectDir, "-projects.txt");
+    try {
+      if (!Files.exists(file)) return null;
+      List<String> lines = Files.readAllLines(file);
+      if (lines.isEmpty() || !fingerprint.equals(lines.get(0))) return null;
+      return new ArrayList<>(lines.subList(1, lines.size()));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  public static void storeSubprojects(File projectDir, String fingerprint, List<String> subprojects) {
+    if (fingerprint == null) return;
+    try {
+      writeAtomically(cacheFile(projectDir, "-projects.txt"),
+                      fingerprint + "\n" + String.join("\n", subprojects));
+    } catch (IOException e) {
+      log.warn("Could not cache subprojects of {}: {}", projectDir, e.getMessage());
+    }
+  }
+
+  private static Path cacheFile(File projectDir, String suffix) {
+    return getAppDataPath(CACHE_DIR).resolve(sha256Hex(projectDir.getAbsolutePath()).substring(0, 16) + suffix);
+  }
+
+  private static void writeAtomically(Path target, String content) throws IOException {
+    Path temp = Files.createTempFile(target.getParent(), "entry", ".tmp");
+    Files.writeString(temp, content);
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
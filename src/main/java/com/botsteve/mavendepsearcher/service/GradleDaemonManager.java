@@ -0,0 +1,243 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getIntSetting;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.process.ProcessResult;
+import com.botsteve.mavendepsearcher.process.ProcessRunner;
+
+/**
+ * Keeps the Gradle daemons of repository builds warm between builds.
+ *
+ * Gradle reuses an idle daemon of the same Gradle version and JDK on its own, and starts another
+ * one when all compatible daemons are busy. This keeps track of how many daemons each Gradle
+ * version and JDK pair has warm and how much heap they hold. When a build needs a daemon that
+ * does not fit in {@link #GRADLE_DAEMON_MEMORY_BUDGET_MB}, the least recently used Gradle versions
+ * with no running build are stopped with {@code gradlew --stop}, which stops all daemons of a
+ * version whatever their JDK. A version with a running build is never stopped. Daemons idle for
+ * {@link #GRADLE_DAEMON_IDLE_MINUTES} stop by themselves.
+ */
+@Slf4j
+public class GradleDaemonManager {
+
+  public static final String GRADLE_DAEMON_MEMORY_BUDGET_MB = "GRADLE_DAEMON_MEMORY_BUDGET_MB";
+  public static final String GRADLE_DAEMON_IDLE_MINUTES = "GRADLE_DAEMON_IDLE_MINUTES";
+
+  private static final int DEFAULT_MEMORY_BUDGET_MB = 4096;
+  private static final int DEFAULT_IDLE_MINUTES = 30;
+  private static final Duration STOP_TIMEOUT = Duration.ofMinutes(2);
+  private static final Pattern WRAPPER_VERSION = Pattern.compile("gradle-([0-9][^/]*?)-(?:bin|all)\\.zip");
+  private static final boolean IS_WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
+  private static GradleDaemonManager shared;
+
+  /**
+   * Stops all daemons of a Gradle version through the wrapper of a repository using it.
+   */
+  public interface DaemonStopper {
+    void stop(String gradleVersion, File repo, String jdkPath) throws Exception;
+  }
+
+  /**
+   * A build holding a daemon; closing it makes the daemon idle again.
+   */
+  public interface Lease extends AutoCloseable {
+    @Override
+    void close();
+
+    /**
+     * Releases the daemon after the build's process tree was killed. A daemon this build started
+     * is its descendant and went with it; a warm daemon it reused was started by an earlier build,
+     * survives and becomes idle again.
+     */
+    void discard();
+  }
+
+  private final long memoryBudgetMb;
+  private final long idleTimeoutMillis;
+  private final DaemonStopper stopper;
+  private final Map<String, Version> versions = new HashMap<>();
+
+  public GradleDaemonManager(long memoryBudgetMb, long idleTimeoutMillis, DaemonStopper stopper) {
+    this.memoryBudgetMb = memoryBudgetMb;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.stopper = stopper;
+  }
+
+  /**
+   * The manager of this application, shared by all build tasks since daemons outlive them.
+   */
+  public static synchronized GradleDaemonManager shared() {
+    if (shared == null) {
+      shared = new GradleDaemonManager(getIntSetting(GRADLE_DAEMON_MEMORY_BUDGET_MB, DEFAULT_MEMORY_BUDGET_MB),
+                                       Duration.ofMinutes(getIntSetting(GRADLE_DAEMON_IDLE_MINUTES, DEFAULT_IDLE_MINUTES)).toMillis(),
+                                       GradleDaemonManager::runStop);
+    }
+    return shared;
+  }
+
+  /**
+   * Gradle arguments making the daemons of a build stop after the configured idle time.
+   */
+  public List<String> daemonArguments() {
+    return List.of("-Dorg.gradle.daemon.idletimeout=" + idleTimeoutMillis);
+  }
+
+  /**
+   * Reserves a daemon of the repository's Gradle version for a build with the JDK, making room
+   * for it first when a new daemon would exceed the memory budget.
+   */
+  public Lease acquire(File repo, String jdkPath, long daemonHeapMb) {
+    String gradleVersion = wrapperVersion(repo);
+    List<Version> toStop = new ArrayList<>();
+    Pool pool;
+    boolean started;
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      forgetExpired(now);
+      Version version = versions.computeIfAbsent(gradleVersion, Version::new);
+      version.repo = repo;
+      pool = version.pools.computeIfAbsent(jdkPath, k -> new Pool());
+      started = pool.busy == pool.warm;
+      if (started) {
+        // Gradle will start another daemon
+        long needed = daemonHeapMb;
+        List<Version> idle = versions.values().stream()
+            .filter(candidate -> candidate != version && candidate.busy() == 0)
+            .sorted(Comparator.comparingLong(Version::lastUsed))
+            .toList();
+        for (Version candidate : idle) {
+          if (warmHeapMb() + needed <= memoryBudgetMb) break;
+          versions.remove(candidate.gradleVersion);
+          toStop.add(candidate);
+        }
+        if (warmHeapMb() + needed > memoryBudgetMb) {
+          log.info("Gradle daemons exceed {} MB, every other Gradle version is in use", memoryBudgetMb);
+        }
+        pool.warm++;
+        pool.heapMb = Math.max(pool.heapMb, daemonHeapMb);
+      } else {
+        log.info("Reusing a warm Gradle {} daemon on {} for {}", gradleVersion, jdkPath, repo.getName());
+      }
+      pool.busy++;
+      pool.lastUsed = now;
+    }
+    toStop.forEach(this::stop);
+    return new Lease() {
+      @Override
+      public void close() {
+        release(pool, false);
+      }
+
+      @Override
+      public void discard() {
+        release(pool, started);
+      }
+    };
+  }
+
+  private synchronized void release(Pool pool, boolean gone) {
+    pool.busy--;
+    if (gone) pool.warm--;
+    pool.lastUsed = System.currentTimeMillis();
+  }
+
+  /**
+   * Reads the Gradle version of the repository's wrapper, "unknown" without one.
+   */
+  static String wrapperVersion(File repo) {
+    File wrapperProps = new File(repo, "gradle/wrapper/gradle-wrapper.properties");
+    if (wrapperProps.isFile()) {
+      Properties props = new Properties();
+      try (FileInputStream in = new FileInputStream(wrapperProps)) {
+        props.load(in);
+        Matcher matcher = WRAPPER_VERSION.matcher(props.getProperty("distributionUrl", ""));
+        if (matcher.find()) return matcher.group(1);
+      } catch (Exception e) {
+        log.debug("Could not read {}: {}", wrapperProps, e.getMessage());
+      }
+    }
+    return "unknown";
+  }
+
+  synchronized long warmHeapMb() {
+    return versions.values().stream()
+        .flatMap(version -> version.pools.values().stream())
+        .mapToLong(pool -> pool.warm * pool.heapMb)
+        .sum();
+  }
+
+  /**
+   * Drops the daemons idle for longer than the idle timeout, they stopped by themselves.
+   */
+  private void forgetExpired(long now) {
+    versions.values().forEach(version -> version.pools.values().removeIf(
+        pool -> pool.busy == 0 && now - pool.lastUsed > idleTimeoutMillis));
+    versions.values().removeIf(version -> version.pools.isEmpty());
+  }
+
+  private void stop(Version version) {
+    log.info("Stopping the idle Gradle {} daemons to free memory", version.gradleVersion);
+    String jdkPath = version.pools.keySet().iterator().next();
+    try {
+      stopper.stop(version.gradleVersion, version.repo, jdkPath);
+    } catch (Exception e) {
+      log.warn("Could not stop the Gradle {} daemons: {}", version.gradleVersion, e.getMessage());
+    }
+  }
+
+  private static void runStop(String gradleVersion, File repo, String jdkPath) throws Exception {
+    ProcessResult result = ProcessRunner.builder()
+        .name("gradle-stop-" + gradleVersion)
+        .command(List.of(IS_WINDOWS ? "gradlew.bat" : "./gradlew", "--stop"))
+        .directory(repo)
+        .env("JAVA_HOME", jdkPath)
+        .timeout(STOP_TIMEOUT)
+        .build()
+        .run();
+    if (!result.isSuccess()) {
+      log.warn("gradlew --stop of Gradle {} {}", gradleVersion, result.describeExit());
+    }
+  }
+
+  private static class Version {
+    final String gradleVersion;
+    /**
+     * A repository whose wrapper runs this version, to stop its daemons.
+     */
+    File repo;
+    final Map<String, Pool> pools = new HashMap<>();
+
+    Version(String gradleVersion) {
+      this.gradleVersion = gradleVersion;
+    }
+
+    int busy() {
+      return pools.values().stream().mapToInt(pool -> pool.busy).sum();
+    }
+
+    long lastUsed() {
+      return pools.values().stream().mapToLong(pool -> pool.lastUsed).max().orElse(0);
+    }
+  }
+
+  /**
+   * The daemons of one Gradle version and JDK.
+   */
+  private static class Pool {
+    int warm;
+    int busy;
+    long heapMb;
+    long lastUsed;
+  }
+}
@@ -3,15 +3,19 @@ package com.botsteve.mavendepsearcher.service;
 import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.JDKS;
 import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.resolveJavaPathToBeUsed;
 import static com.botsteve.mavendepsearcher.utils.ScmRepositories.fixNonResolvableScmRepositorise;
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+import static com.botsteve.mavendepsearcher.utils.Utils.getBooleanSetting;
 import static com.botsteve.mavendepsearcher.utils.Utils.getPropertyFromSetting;
+import static com.botsteve.mavendepsearcher.utils.Utils.sha256Hex;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
@@ -22,13 +26,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.botsteve.mavendepsearcher.exception.DepViewerException;
+import com.botsteve.mavendepsearcher.model.BomComponent;
+import com.botsteve.mavendepsearcher.model.CycloneDxBom;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.model.DependencyAnalysis;
+import com.botsteve.mavendepsearcher.model.DependencyAnalysis.Source;
+import com.botsteve.mavendepsearcher.model.GradleAnalysisCacheEntry;
+import com.botsteve.mavendepsearcher.process.ProcessResult;
+import com.botsteve.mavendepsearcher.process.ProcessRunner;
+import com.botsteve.mavendepsearcher.utils.GradleSettingsParser;
 
 /**
  * Analyzes dependencies for Gradle projects.
@@ -53,7 +65,7 @@ public class GradleDependencyAnalyzerService {
   private static final Pattern CONFIGURATION_HEADER_PATTERN =
       Pattern.compile("^(\\w+)(?:\\s+-\\s+.*)?$");
 
-  private static final Set<String> RELEVANT_CONFIGURATIONS = Set.of(
+  static final Set<String> RELEVANT_CONFIGURATIONS = Set.of(
       "implementation", "api", "compileOnly", "compileOnlyApi",
       "runtimeOnly", "runtimeClasspath", "compileClasspath",
       "testImplementation", "testCompileOnly", "testRuntimeOnly",
@@ -65,25 +77,10 @@ public class GradleDependencyAnalyzerService {
   private static final Pattern PROJECT_HEADER_PATTERN =
       Pattern.compile("^-*\\s*Project\\s+[':]*([^']*?)(?:'?)\\s*-*$");
 
-  /**
-   * Whether the last getDependencies() call used CycloneDX (true)
-   * or the fallback parser (false). Used by the loading task to decide
-   * whether to fetch SCM URLs separately.
-   */
-  private static volatile boolean lastRunUsedCycloneDx = false;
-
-  /**
-   * Returns true if the last getDependencies call used CycloneDX
-   * (meaning SCM URLs are already populated).
-   */
-  public static boolean wasLastRunCycloneDx() {
-    return lastRunUsedCycloneDx;
-  }
-
   /**
    * Maps Gradle configuration names to simplified scope labels.
    */
-  private static String mapConfigurationToScope(String configuration) {
+  static String mapConfigurationToScope(String configuration) {
     if (configuration == null) return "";
     return switch (configuration) {
       case "implementation", "compileClasspath" -> "implementation";
@@ -112,43 +109,105 @@ public class GradleDependencyAnalyzerService {
   // used for gradle < 8.0
   private static final String CYCLONEDX_PLUGIN_LEGACY = "1.8.2";
 
+  private static final String INIT_SCRIPTS_DIR = "gradle-init-scripts";
+  private static final String PLUGIN_CLASSPATH_DIR = "gradle-plugin-classpath";
+  private static final String CLASSPATH_MANIFEST = "classpath.txt";
+  private static final String CLASSPATH_SEEDED_MARKER = "seeded";
+  private static final String CLASSPATH_MANIFEST_PROPERTY = "depviewer.cyclonedx.classpathManifest";
+  private static final Duration ANALYSIS_TIMEOUT = Duration.ofMinutes(30);
+  public static final String GRADLE_CONFIGURATION_CACHE = "GRADLE_CONFIGURATION_CACHE";
+  public static final String GRADLE_OFFLINE = "GRADLE_OFFLINE";
+  private static final String APPLY_CYCLONEDX_PLUGIN =
+      "import org.cyclonedx.gradle.CycloneDxPlugin\n" +
+      "allprojects {\n" +
+      "    apply plugin: CycloneDxPlugin\n" +
+      "}\n";
+
   /**
    * Extracts all dependencies from a Gradle project directory.
    * 
-   * Tries CycloneDX first (dynamically selecting plugin version based on Gradle version).
+   * Uses committed lockfiles when they cover the whole build, otherwise tries CycloneDX
+   * (dynamically selecting plugin version based on Gradle version).
    * Falls back to `gradle dependencies` parsing if that fails.
    */
   public static Set<DependencyNode> getDependencies(String projectDir) throws Exception {
-    int gradleMajorVersion = detectGradleMajorVersion(new File(projectDir));
-    boolean useLegacyPlugin = gradleMajorVersion < 8;
+    return analyze(projectDir, true).getDependencies();
+  }
+
+  /**
+   * Analyzes the project, optionally skipping the lockfile fast path to force a full Gradle
+   * run; the result tells where the dependencies came from.
+   */
+  public static DependencyAnalysis analyze(String projectDir, boolean allowLockfiles) throws Exception {
+    File dir = new File(projectDir);
+    String fingerprint = GradleAnalysisCache.isEnabled()
+        ? GradleAnalysisCache.fingerprint(dir, CYCLONEDX_PLUGIN_V3 + "/" + CYCLONEDX_PLUGIN_LEGACY)
+        : null;
+    GradleAnalysisCacheEntry cached = GradleAnalysisCache.load(dir, fingerprint);
+    if (cached != null) {
+      Set<DependencyNode> dependencies = GradleAnalysisCache.dependencies(cached);
+      log.info("Build files unchanged, reusing cached analysis ({} dependencies, saved {} ms)",
+               dependencies.size(), cached.getDurationMillis());
+      return new DependencyAnalysis(dependencies, Source.ANALYSIS_CACHE, cached.getDurationMillis());
+    }
+
+    if (allowLockfiles) {
+      Set<DependencyNode> lockedDependencies = GradleLockfileAnalyzerService.getDependencies(projectDir);
+      if (lockedDependencies != null && !lockedDependencies.isEmpty()) {
+        log.info("Resolved {} dependencies from lockfiles, Gradle was not started", lockedDependencies.size());
+        return new DependencyAnalysis(lockedDependencies, Source.LOCKFILES);
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    DependencyAnalysis analysis = analyzeViaGradle(projectDir);
+    GradleAnalysisCache.store(dir, fingerprint, System.currentTimeMillis() - start, analysis.getDependencies());
+    return analysis;
+  }
+
+  private static DependencyAnalysis analyzeViaGradle(String projectDir) throws Exception {
+    GradleVersion gradleVersion = detectGradleVersion(new File(projectDir));
+    boolean useLegacyPlugin = gradleVersion.major() < 8;
 
     try {
       if (useLegacyPlugin) {
-        log.info("Detected Gradle version {} (< 8), using legacy CycloneDX plugin {}", gradleMajorVersion, CYCLONEDX_PLUGIN_LEGACY);
+        log.info("Detected Gradle version {} (< 8), using legacy CycloneDX plugin {}", gradleVersion, CYCLONEDX_PLUGIN_LEGACY);
       } else {
-        log.info("Detected Gradle version {} (8+), using modern CycloneDX plugin {}", gradleMajorVersion, CYCLONEDX_PLUGIN_V3);
+        log.info("Detected Gradle version {} (8+), using modern CycloneDX plugin {}", gradleVersion, CYCLONEDX_PLUGIN_V3);
       }
 
-      Set<DependencyNode> deps = getDependenciesViaCycloneDx(projectDir, useLegacyPlugin);
-      lastRunUsedCycloneDx = true;
-      return deps;
+      Set<DependencyNode> deps = getDependenciesViaCycloneDx(projectDir, useLegacyPlugin,
+                                                              analysisFlags(gradleVersion, !useLegacyPlugin));
+      return new DependencyAnalysis(deps, Source.CYCLONEDX);
     } catch (Exception e) {
       log.warn("CycloneDX approach failed, falling back to gradle dependencies parsing: {}", e.getMessage());
     }
 
     // Fallback: parse gradle dependencies output
-    lastRunUsedCycloneDx = false;
-    return getDependenciesViaGradleParsing(projectDir);
+    return new DependencyAnalysis(getDependenciesViaGradleParsing(projectDir, analysisFlags(gradleVersion, true)),
+                                  Source.DEPENDENCIES_REPORT);
+  }
+
+  private record GradleVersion(int major, int minor) {
+    boolean isAtLeast(int major, int minor) {
+      return this.major > major || (this.major == major && this.minor >= minor);
+    }
+
+    @Override
+    public String toString() {
+      return major + "." + minor;
+    }
   }
 
   /**
-   * Detects the project's Gradle major version.
-   * Returns 8 (default) if version cannot be determined (optimistic).
+   * Detects the project's Gradle version from the wrapper.
+   * Returns 8.0 (default) if version cannot be determined (optimistic).
    */
-  private static int detectGradleMajorVersion(File projectDir) {
+  private static GradleVersion detectGradleVersion(File projectDir) {
+    GradleVersion defaultVersion = new GradleVersion(8, 0);
     File wrapperProps = new File(projectDir, "gradle/wrapper/gradle-wrapper.properties");
     if (!wrapperProps.exists()) {
-      return 8; // Default to modern if unknown
+      return defaultVersion; // Default to modern if unknown
     }
 
     try {
@@ -158,25 +217,45 @@ public class GradleDependencyAnalyzerService {
       }
 
       String distributionUrl = props.getProperty("distributionUrl");
-      if (distributionUrl == null) return 8;
+      if (distributionUrl == null) return defaultVersion;
 
       Matcher matcher = Pattern.compile("gradle-(\\d+)\\.(\\d+)")
           .matcher(distributionUrl);
-      if (!matcher.find()) return 8;
+      if (!matcher.find()) return defaultVersion;
 
-      return Integer.parseInt(matcher.group(1));
+      return new GradleVersion(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
     } catch (Exception e) {
       log.warn("Could not check Gradle version: {}", e.getMessage());
-      return 8; // Default to modern on error
+      return defaultVersion; // Default to modern on error
     }
   }
 
+  /**
+   * Flags shared by all analysis invocations. The build cache is always on. The configuration
+   * cache is used from Gradle 8.1, where it is stable; problems are only reported as warnings so
+   * builds with incompatible plugins still run. --offline is opt-in through GRADLE_OFFLINE.
+   */
+  private static List<String> analysisFlags(GradleVersion gradleVersion, boolean configurationCacheSupported) {
+    List<String> flags = new ArrayList<>();
+    flags.add("--build-cache");
+    if (configurationCacheSupported && gradleVersion.isAtLeast(8, 1)
+        && getBooleanSetting(GRADLE_CONFIGURATION_CACHE, true)) {
+      flags.add("--configuration-cache");
+      flags.add("--configuration-cache-problems=warn");
+    }
+    if (getBooleanSetting(GRADLE_OFFLINE, false)) {
+      flags.add("--offline");
+    }
+    return flags;
+  }
+
   // ==========================================================================
   // CycloneDX approach (primary)
   // ==========================================================================
 
-  private static Set<DependencyNode> getDependenciesViaCycloneDx(String projectDir, boolean useLegacyPlugin) throws Exception {
-    runCycloneDxBom(projectDir, useLegacyPlugin);
+  private static Set<DependencyNode> getDependenciesViaCycloneDx(String projectDir, boolean useLegacyPlugin,
+                                                                 List<String> flags) throws Exception {
+    runCycloneDxBom(projectDir, useLegacyPlugin, flags);
 
     // Output path differs between versions
     // V3+: build/reports/cyclonedx/bom.json
@@ -202,16 +281,22 @@ public class GradleDependencyAnalyzerService {
     return dependencies;
   }
 
-  private static void runCycloneDxBom(String projectDir, boolean useLegacyPlugin) throws Exception {
+  private static void runCycloneDxBom(String projectDir, boolean useLegacyPlugin, List<String> flags) throws Exception {
     File dir = new File(projectDir);
     String gradleCmd = findGradleExecutable(dir);
-    Path initScript = extractInitScript(useLegacyPlugin);
+    Path pluginClasspathDir = getPluginClasspathDir(useLegacyPlugin);
+    boolean warmClasspath = isPluginClasspathSeeded(pluginClasspathDir);
+    Path initScript = extractInitScript(useLegacyPlugin, warmClasspath ? pluginClasspathDir : null);
+    Path classpathManifest = warmClasspath ? null : pluginClasspathDir.resolve(CLASSPATH_MANIFEST);
     List<String> jdkPaths = buildJdkCandidateList(dir);
 
     Exception lastException = null;
     for (String javaHome : jdkPaths) {
       try {
-        executeCycloneDxBom(gradleCmd, dir, javaHome, initScript);
+        executeCycloneDxBom(gradleCmd, dir, javaHome, initScript, classpathManifest, flags);
+        if (!warmClasspath) {
+          seedPluginClasspath(pluginClasspathDir, classpathManifest);
+        }
         return;
       } catch (Exception e) {
         lastException = e;
@@ -219,15 +304,41 @@ public class GradleDependencyAnalyzerService {
       }
     }
 
+    if (warmClasspath) {
+      // The seeded jars may be incomplete or corrupt, resolve them again on the next run
+      Files.deleteIfExists(pluginClasspathDir.resolve(CLASSPATH_SEEDED_MARKER));
+    }
     throw new DepViewerException(
         "CycloneDX BOM generation failed with all available JDKs. Last error: "
         + (lastException != null ? lastException.getMessage() : "unknown"), lastException);
   }
 
-  private static Path extractInitScript(boolean useLegacyPlugin) throws IOException {
-    Path tempScript = Files.createTempFile("cyclonedx-init", ".gradle"); // .gradle is universal (groovy), .kts is kotlin
-    tempScript.toFile().deleteOnExit();
+  /**
+   * Writes the init script to a content-addressed file under the app data directory.
+   *
+   * The same content always lands on the same path, so Gradle's compiled script cache hits on
+   * every run after the first. When a seeded plugin classpath is given, the script puts those
+   * jars on the init script classpath directly and nothing has to be resolved.
+   */
+  private static Path extractInitScript(boolean useLegacyPlugin, Path seededClasspathDir) throws IOException {
+    String scriptContent = seededClasspathDir != null
+        ? buildWarmInitScript(seededClasspathDir)
+        : buildResolvingInitScript(useLegacyPlugin);
+
+    Path scriptDir = getAppDataPath(INIT_SCRIPTS_DIR);
+    Path script = scriptDir.resolve("cyclonedx-" + sha256Hex(scriptContent).substring(0, 16) + ".gradle");
+    if (!Files.exists(script)) {
+      Path tempScript = Files.createTempFile(scriptDir, "cyclonedx-init", ".tmp");
+      Files.writeString(tempScript, scriptContent);
+      Files.move(tempScript, script, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.info("Wrote CycloneDX init script to: {}", script);
+    } else {
+      log.info("Reusing CycloneDX init script: {}", script);
+    }
+    return script;
+  }
 
+  private static String buildResolvingInitScript(boolean useLegacyPlugin) {
     String scriptContent;
     if (useLegacyPlugin) {
       // Legacy Groovy script for Gradle < 8
@@ -251,10 +362,6 @@ public class GradleDependencyAnalyzerService {
           "            details.useVersion '28.2-jre'\n" +
           "        }\n" +
           "    }\n" +
-          "}\n" +
-          "import org.cyclonedx.gradle.CycloneDxPlugin\n" +
-          "allprojects {\n" +
-          "    apply plugin: CycloneDxPlugin\n" +
           "}\n";
     } else {
       // Modern Groovy script for Gradle 8+
@@ -266,20 +373,97 @@ public class GradleDependencyAnalyzerService {
           "    dependencies {\n" +
           "        classpath 'org.cyclonedx:cyclonedx-gradle-plugin:" + CYCLONEDX_PLUGIN_V3 + "'\n" +
           "    }\n" +
-          "}\n" +
-          "import org.cyclonedx.gradle.CycloneDxPlugin\n" +
-          "allprojects {\n" +
-          "    apply plugin: CycloneDxPlugin\n" +
           "}\n";
     }
 
-    Files.writeString(tempScript, scriptContent);
-    log.info("Extracted CycloneDX init script to: {}", tempScript);
-    return tempScript;
+    // Report the resolved plugin classpath so it can be seeded for later runs
+    return scriptContent +
+        "def classpathManifest = System.getProperty('" + CLASSPATH_MANIFEST_PROPERTY + "')\n" +
+        "if (classpathManifest) {\n" +
+        "    new File(classpathManifest).text = initscript.configurations.classpath.files*.absolutePath.join('\\n')\n" +
+        "}\n" +
+        APPLY_CYCLONEDX_PLUGIN;
+  }
+
+  private static String buildWarmInitScript(Path seededClasspathDir) throws IOException {
+    List<String> jars;
+    try (Stream<Path> files = Files.list(seededClasspathDir)) {
+      jars = files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+          .map(file -> "'" + file.toAbsolutePath().toString().replace('\\', '/') + "'")
+          .sorted()
+          .toList();
+    }
+    return "initscript {\n" +
+           "    dependencies {\n" +
+           "        classpath files(" + String.join(", ", jars) + ")\n" +
+           "    }\n" +
+           "}\n" +
+           APPLY_CYCLONEDX_PLUGIN;
+  }
+
+  private static Path getPluginClasspathDir(boolean useLegacyPlugin) {
+    String version = useLegacyPlugin ? CYCLONEDX_PLUGIN_LEGACY : CYCLONEDX_PLUGIN_V3;
+    return getAppDataPath(PLUGIN_CLASSPATH_DIR).resolve("cyclonedx-gradle-plugin-" + version);
+  }
+
+  private static boolean isPluginClasspathSeeded(Path pluginClasspathDir) {
+    return Files.exists(pluginClasspathDir.resolve(CLASSPATH_SEEDED_MARKER));
+  }
+
+  /**
+   * Copies the plugin classpath reported by the resolving init script next to the app data,
+   * so later runs skip plugin resolution entirely. Failures only cost the warm start.
+   *
+   * Jars are named after a hash of their path in Gradle's cache, since different artifacts may
+   * share a file name; two jars still landing on the same name fail the seeding rather than
+   * leave a mixed-up classpath behind.
+   */
+  private static void seedPluginClasspath(Path pluginClasspathDir, Path classpathManifest) {
+    try {
+      if (!Files.exists(classpathManifest)) {
+        log.info("No plugin classpath reported by Gradle, skipping seeding");
+        return;
+      }
+      Files.createDirectories(pluginClasspathDir);
+      // Leftovers of an earlier, unfinished seeding would end up on the warm classpath
+      deleteSeededJars(pluginClasspathDir);
+      Set<Path> sources = new LinkedHashSet<>();
+      for (String jar : Files.readAllLines(classpathManifest)) {
+        if (jar.isBlank()) continue;
+        Path source = Path.of(jar.trim()).toAbsolutePath().normalize();
+        if (Files.isRegularFile(source)) sources.add(source);
+      }
+      for (Path source : sources) {
+        Path target = pluginClasspathDir.resolve(sha256Hex(source.toString()).substring(0, 12) + "-" + source.getFileName());
+        if (Files.exists(target)) {
+          throw new IOException("two plugin jars are both seeded as " + target.getFileName());
+        }
+        Files.copy(source, target);
+      }
+      Files.writeString(pluginClasspathDir.resolve(CLASSPATH_SEEDED_MARKER), Instant.now().toString());
+      Files.deleteIfExists(classpathManifest);
+      log.info("Seeded CycloneDX plugin classpath in {}", pluginClasspathDir);
+    } catch (IOException e) {
+      log.warn("Could not seed CycloneDX plugin classpath: {}", e.getMessage());
+      try {
+        deleteSeededJars(pluginClasspathDir);
+      } catch (IOException cleanup) {
+        log.debug("Could not clean up {}: {}", pluginClasspathDir, cleanup.getMessage());
+      }
+    }
+  }
+
+  private static void deleteSeededJars(Path pluginClasspathDir) throws IOException {
+    if (!Files.isDirectory(pluginClasspathDir)) return;
+    try (Stream<Path> files = Files.list(pluginClasspathDir)) {
+      for (Path jar : files.filter(file -> file.getFileName().toString().endsWith(".jar")).toList()) {
+        Files.deleteIfExists(jar);
+      }
+    }
   }
 
   private static void executeCycloneDxBom(String gradleCmd, File projectDir,
-      String javaHome, Path initScript) throws Exception {
+      String javaHome, Path initScript, Path classpathManifest, List<String> flags) throws Exception {
 
     var command = new ArrayList<String>();
     command.add(gradleCmd);
@@ -287,82 +471,60 @@ public class GradleDependencyAnalyzerService {
     command.add("--init-script");
     command.add(initScript.toAbsolutePath().toString());
     command.add("--console=plain");
+    command.addAll(flags);
+    if (classpathManifest != null) {
+      Files.createDirectories(classpathManifest.getParent());
+      command.add("-D" + CLASSPATH_MANIFEST_PROPERTY + "=" + classpathManifest.toAbsolutePath());
+    }
 
     log.info("Executing CycloneDX: {} in {} with JAVA_HOME={}",
         String.join(" ", command), projectDir, javaHome);
 
-    ProcessBuilder pb = new ProcessBuilder(command);
-    pb.directory(projectDir);
-    pb.redirectErrorStream(true);
+    ProcessResult result = ProcessRunner.builder()
+        .name("gradle-cyclonedx")
+        .command(command)
+        .directory(projectDir)
+        .env("JAVA_HOME", javaHome)
+        .timeout(ANALYSIS_TIMEOUT)
+        .lineConsumer(line -> log.info("[gradle-cyclonedx] {}", line))
+        .build()
+        .run();
 
-    if (javaHome != null && !javaHome.isEmpty()) {
-      pb.environment().put("JAVA_HOME", javaHome);
-    }
-
-    Process process = pb.start();
-    StringBuilder output = new StringBuilder();
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        log.info("[gradle-cyclonedx] {}", line);
-        output.append(line).append(System.lineSeparator());
-      }
-    }
-
-    int exitCode = process.waitFor();
-    if (exitCode != 0) {
-      throw new DepViewerException("CycloneDX BOM generation failed (exit code " + exitCode + ")");
+    if (!result.isSuccess()) {
+      log.warn("CycloneDX BOM generation failed, last output:\n{}", result.getTail());
+      throw new DepViewerException("CycloneDX BOM generation failed (" + result.describeExit() + ")");
     }
   }
 
-  private static Set<DependencyNode> parseCycloneDxBom(File bomFile) throws IOException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode rootNode = mapper.readTree(bomFile);
-    JsonNode components = rootNode.get("components");
-
-    Set<DependencyNode> dependencies = new HashSet<>();
-
-    if (components != null && components.isArray()) {
-      for (JsonNode component : components) {
-        String groupId = component.path("group").asText(null);
-        String artifactId = component.path("name").asText(null);
-        String version = component.path("version").asText(null);
-
-        if (groupId == null || artifactId == null) continue;
-
-        String scope = extractScope(component);
-        DependencyNode node = new DependencyNode(groupId, artifactId,
-            version != null ? version : "", scope);
-
-        String scmUrl = extractScmUrl(component, artifactId);
-        node.setScmUrl(scmUrl);
-
-        dependencies.add(node);
-      }
-    }
-
-    return dependencies;
+  /**
+   * Reads the BOM with the streaming reader and keeps its transitive structure:
+   * top-level nodes are the project's direct dependencies.
+   */
+  static Set<DependencyNode> parseCycloneDxBom(File bomFile) throws IOException {
+    CycloneDxBom bom = CycloneDxBomReader.read(bomFile);
+    return CycloneDxBomReader.buildDependencyTree(bom, component -> {
+      if (component.getGroup() == null || component.getName() == null) return null;
+
+      DependencyNode node = new DependencyNode(component.getGroup(), component.getName(),
+          component.getVersion() != null ? component.getVersion() : "", extractScope(component));
+      node.setScmUrl(extractScmUrl(component));
+      return node;
+    });
   }
 
-  private static String extractScope(JsonNode component) {
+  private static String extractScope(BomComponent component) {
     // 1. Try to find Gradle-specific properties (the plugin stores configuration names here)
-    JsonNode properties = component.path("properties");
-    if (properties.isArray()) {
-      for (JsonNode prop : properties) {
-        String name = prop.path("name").asText("");
-        if ("gradle:configuration".equals(name) || "gradle:configurations".equals(name)) {
-          String value = prop.path("value").asText("");
-          if (!value.isEmpty()) {
-            // If multiple configurations, take the first one or most important
-            String firstConfig = value.contains(",") ? value.split(",")[0].trim() : value;
-            return mapConfigurationToScope(firstConfig);
-          }
-        }
+    for (String name : List.of("gradle:configuration", "gradle:configurations")) {
+      String value = component.getProperties().getOrDefault(name, "");
+      if (!value.isEmpty()) {
+        // If multiple configurations, take the first one or most important
+        String firstConfig = value.contains(",") ? value.split(",")[0].trim() : value;
+        return mapConfigurationToScope(firstConfig);
       }
     }
 
     // 2. Fallback to standard CycloneDX scope
-    String scope = component.path("scope").asText(null);
+    String scope = component.getScope();
     if (scope != null && !scope.isEmpty()) {
       return switch (scope.toLowerCase()) {
         case "required" -> "implementation";
@@ -376,18 +538,10 @@ public class GradleDependencyAnalyzerService {
     return "implementation";
   }
 
-  private static String extractScmUrl(JsonNode component, String artifactId) {
-    JsonNode externalReferences = component.path("externalReferences");
-    if (externalReferences.isArray()) {
-      for (JsonNode ref : externalReferences) {
-        if ("vcs".equals(ref.path("type").asText())) {
-          String url = ref.path("url").asText("");
-          if (!url.isEmpty()) {
-            return fixNonResolvableScmRepositorise(
-                ScmEnrichmentService.convertSCM(url), artifactId);
-          }
-        }
-      }
+  private static String extractScmUrl(BomComponent component) {
+    if (component.getVcsUrl() != null) {
+      return fixNonResolvableScmRepositorise(
+          ScmEnrichmentService.convertSCM(component.getVcsUrl()), component.getName());
     }
     return "SCM URL not found";
   }
@@ -396,8 +550,8 @@ public class GradleDependencyAnalyzerService {
   // Fallback: gradle dependencies parsing
   // ==========================================================================
 
-  private static Set<DependencyNode> getDependenciesViaGradleParsing(String projectDir) throws Exception {
-    Map<String, Set<DependencyNode>> configToDeps = runGradleDependencies(projectDir);
+  private static Set<DependencyNode> getDependenciesViaGradleParsing(String projectDir, List<String> flags) throws Exception {
+    Map<String, Set<DependencyNode>> configToDeps = runGradleDependencies(projectDir, flags);
 
     if (configToDeps.isEmpty()) {
       throw new DepViewerException(
@@ -419,7 +573,7 @@ public class GradleDependencyAnalyzerService {
     return result;
   }
 
-  private static Map<String, Set<DependencyNode>> runGradleDependencies(String projectDir) throws Exception {
+  private static Map<String, Set<DependencyNode>> runGradleDependencies(String projectDir, List<String> flags) throws Exception {
     File dir = new File(projectDir);
     String gradleCmd = findGradleExecutable(dir);
     List<String> jdkPaths = buildJdkCandidateList(dir);
@@ -427,7 +581,7 @@ public class GradleDependencyAnalyzerService {
     Exception lastException = null;
     for (String javaHome : jdkPaths) {
       try {
-        return executeGradleDependencies(gradleCmd, dir, javaHome);
+        return executeGradleDependencies(gradleCmd, dir, javaHome, flags);
       } catch (Exception e) {
         lastException = e;
         log.warn("Gradle dependencies failed with JAVA_HOME={}: {}", javaHome, e.getMessage());
@@ -439,32 +593,48 @@ public class GradleDependencyAnalyzerService {
         + (lastException != null ? lastException.getMessage() : "unknown"), lastException);
   }
 
-  private static List<String> detectSubprojects(String gradleCmd, File projectDir, String javaHome) {
+  /**
+   * Lists the subproject paths, preferring a static read of the settings file and then the
+   * result of an earlier `gradle projects` run for the same build files, so the build is only
+   * configured an extra time when neither is available.
+   */
+  private static List<String> detectSubprojects(String gradleCmd, File projectDir, String javaHome, List<String> flags) {
+    List<String> declared = GradleSettingsParser.parseIncludedProjects(projectDir);
+    if (declared != null) {
+      log.info("Read {} subprojects from settings file: {}", declared.size(), declared);
+      return declared;
+    }
+    String fingerprint = GradleAnalysisCache.isEnabled() ? GradleAnalysisCache.fingerprint(projectDir, "projects") : null;
+    List<String> cached = GradleAnalysisCache.loadSubprojects(projectDir, fingerprint);
+    if (cached != null) {
+      log.info("Reusing {} cached subprojects: {}", cached.size(), cached);
+      return cached;
+    }
+
     try {
-      var command = List.of(gradleCmd, "projects", "--quiet", "--console=plain");
+      var command = new ArrayList<>(List.of(gradleCmd, "projects", "--quiet", "--console=plain"));
+      command.addAll(flags);
       log.info("Detecting subprojects: {} in {}", String.join(" ", command), projectDir);
 
-      ProcessBuilder pb = new ProcessBuilder(command);
-      pb.directory(projectDir);
-      pb.redirectErrorStream(true);
-      if (javaHome != null && !javaHome.isEmpty()) {
-        pb.environment().put("JAVA_HOME", javaHome);
-      }
-
-      Process process = pb.start();
       List<String> subprojects = new ArrayList<>();
       Pattern subprojectPattern = Pattern.compile("^[+\\\\|\\s]*---\\s+Project\\s+'(:[^']+)'");
-
-      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-        String line;
-        while ((line = reader.readLine()) != null) {
-          Matcher m = subprojectPattern.matcher(line);
-          if (m.find()) {
-            subprojects.add(m.group(1));
-          }
-        }
+      ProcessResult result = ProcessRunner.builder()
+          .name("gradle-projects")
+          .command(command)
+          .directory(projectDir)
+          .env("JAVA_HOME", javaHome)
+          .timeout(ANALYSIS_TIMEOUT)
+          .lineConsumer(line -> {
+            Matcher m = subprojectPattern.matcher(line);
+            if (m.find()) {
+              subprojects.add(m.group(1));
+            }
+          })
+          .build()
+          .run();
+      if (result.isSuccess()) {
+        GradleAnalysisCache.storeSubprojects(projectDir, fingerprint, subprojects);
       }
-      process.waitFor();
       log.info("Detected {} subprojects: {}", subprojects.size(), subprojects);
       return subprojects;
     } catch (Exception e) {
@@ -473,8 +643,9 @@ public class GradleDependencyAnalyzerService {
     }
   }
 
-  private static Map<String, Set<DependencyNode>> executeGradleDependencies(String gradleCmd, File projectDir, String javaHome) throws Exception {
-    List<String> subprojects = detectSubprojects(gradleCmd, projectDir, javaHome);
+  private static Map<String, Set<DependencyNode>> executeGradleDependencies(String gradleCmd, File projectDir, String javaHome,
+                                                                            List<String> flags) throws Exception {
+    List<String> subprojects = detectSubprojects(gradleCmd, projectDir, javaHome, flags);
 
     var command = new ArrayList<String>();
     command.add(gradleCmd);
@@ -489,45 +660,47 @@ public class GradleDependencyAnalyzerService {
     }
     command.add("--console=plain");
     command.add("--info");
+    command.addAll(flags);
 
     log.info("Executing Gradle: {} in {} with JAVA_HOME={}", String.join(" ", command), projectDir, javaHome);
 
-    ProcessBuilder pb = new ProcessBuilder(command);
-    pb.directory(projectDir);
-    pb.redirectErrorStream(true);
-
-    if (javaHome != null && !javaHome.isEmpty()) {
-      pb.environment().put("JAVA_HOME", javaHome);
-    }
-
-    Process process;
+    DependencyOutputParser parser = new DependencyOutputParser();
+    ProcessResult result;
     try {
-      process = pb.start();
-    } catch (Exception e) {
+      result = ProcessRunner.builder()
+          .name("gradle-dependencies")
+          .command(command)
+          .directory(projectDir)
+          .env("JAVA_HOME", javaHome)
+          .timeout(ANALYSIS_TIMEOUT)
+          .lineConsumer(parser)
+          .build()
+          .run();
+    } catch (IOException e) {
       throw new DepViewerException("Failed to start Gradle.", e);
     }
 
-    Map<String, Set<DependencyNode>> result;
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-      result = parseDependenciesFromStream(reader);
+    if (!result.isSuccess()) {
+      log.warn("Gradle dependencies command failed, last output:\n{}", result.getTail());
+      throw new DepViewerException("Gradle dependencies command failed (" + result.describeExit() + ")");
     }
 
-    int exitCode = process.waitFor();
-    if (exitCode != 0) {
-      throw new DepViewerException("Gradle dependencies command failed (exit code " + exitCode + ")");
-    }
-
-    return result;
+    return parser.getResult();
   }
 
-  static Map<String, Set<DependencyNode>> parseDependenciesFromStream(BufferedReader reader) throws IOException {
-    Map<String, Set<DependencyNode>> result = new LinkedHashMap<>();
-    String currentConfig = null;
-    String currentProject = "";
-    var currentLines = new ArrayList<String>();
+  /**
+   * Line-based parser for `gradle dependencies` output, fed directly by the process pump.
+   * Only the lines of the configuration section being read are held at a time.
+   */
+  static class DependencyOutputParser implements Consumer<String> {
+
+    private final Map<String, Set<DependencyNode>> result = new LinkedHashMap<>();
+    private String currentConfig = null;
+    private String currentProject = "";
+    private List<String> currentLines = new ArrayList<>();
 
-    String line;
-    while ((line = reader.readLine()) != null) {
+    @Override
+    public void accept(String line) {
       log.info("[gradle] {}", line);
       String trimmedLine = line.trim();
       Matcher projectMatcher = PROJECT_HEADER_PATTERN.matcher(trimmedLine);
@@ -541,7 +714,7 @@ public class GradleDependencyAnalyzerService {
           currentProject = currentProject.substring(1);
         }
         log.info("Parsing dependencies for project: {}", currentProject);
-        continue;
+        return;
       }
 
       if (!line.startsWith(" ") && !line.startsWith("|") && !line.startsWith("+") && !line.startsWith("\\")) {
@@ -564,8 +737,12 @@ public class GradleDependencyAnalyzerService {
       }
     }
 
-    flushConfigSection(result, currentConfig, currentLines, currentProject);
-    return result;
+    Map<String, Set<DependencyNode>> getResult() {
+      flushConfigSection(result, currentConfig, currentLines, currentProject);
+      currentConfig = null;
+      currentLines = new ArrayList<>();
+      return result;
+    }
   }
 
   private static void flushConfigSection(Map<String, Set<DependencyNode>> result,
@@ -0,0 +1,183 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.service.GradleDependencyAnalyzerService.RELEVANT_CONFIGURATIONS;
+import static com.botsteve.mavendepsearcher.service.GradleDependencyAnalyzerService.mapConfigurationToScope;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.utils.GradleSettingsParser;
+
+/**
+ * Fast path for Gradle projects that commit dependency lockfiles.
+ *
+ * Builds the dependency set directly from gradle.lockfile (Gradle 6.8+) or the legacy
+ * gradle/dependency-locks/*.lockfile layout, without starting Gradle. Lockfiles only contain
+ * resolved coordinates, so the result is a flat set, like the CycloneDX BOM components.
+ */
+@Slf4j
+public class GradleLockfileAnalyzerService {
+
+  private static final String LOCKFILE = "gradle.lockfile";
+  private static final String LEGACY_LOCKS_DIR = "gradle/dependency-locks";
+  private static final String EMPTY_ENTRY = "empty";
+
+  /**
+   * Configurations every locked project must cover for the lockfiles to be trusted.
+   */
+  private static final Set<String> REQUIRED_CONFIGURATIONS = Set.of("compileClasspath", "runtimeClasspath");
+
+  /**
+   * Order in which the scope of a dependency locked in several configurations is chosen.
+   */
+  private static final List<String> SCOPE_PRIORITY = List.of(
+      "compileClasspath", "runtimeClasspath", "annotationProcessor",
+      "testCompileClasspath", "testRuntimeClasspath", "testAnnotationProcessor",
+      "testFixturesCompileClasspath", "testFixturesRuntimeClasspath");
+
+  /**
+   * Reads the dependencies of all projects of the build from their lockfiles.
+   *
+   * Returns null when the fast path does not apply: the project list cannot be determined
+   * statically, a project with a build file has no lockfile, or a lockfile does not cover
+   * the compile and runtime classpaths.
+   */
+  public static Set<DependencyNode> getDependencies(String projectDir) {
+    File rootDir = new File(projectDir);
+    List<String> includedProjects = GradleSettingsParser.parseIncludedProjects(rootDir);
+    if (includedProjects == null || GradleSettingsParser.hasCustomProjectDirs(rootDir)) {
+      log.info("Lockfile fast path skipped: project layout of {} is not static", projectDir);
+      return null;
+    }
+
+    List<String> projectPaths = new ArrayList<>();
+    projectPaths.add(":");
+    projectPaths.addAll(includedProjects);
+
+    Map<String, DependencyNode> merged = new LinkedHashMap<>();
+    int lockedProjects = 0;
+    for (String projectPath : projectPaths) {
+      File dir = GradleSettingsParser.toProjectDirectory(rootDir, projectPath);
+      if (!hasBuildFile(dir)) continue;
+
+      Map<String, Set<String>> locks = readLockState(dir);
+      if (locks == null) {
+        log.info("Lockfile fast path skipped: project {} has no lockfile", projectPath);
+        return null;
+      }
+      Set<String> coveredConfigurations = locks.remove(EMPTY_ENTRY);
+      if (!coveredConfigurations.containsAll(REQUIRED_CONFIGURATIONS)) {
+        log.info("Lockfile fast path skipped: project {} only locks {}", projectPath, coveredConfigurations);
+        return null;
+      }
+
+      locks.forEach((coordinates, configurations) -> addLockedDependency(merged, coordinates, configurations));
+      lockedProjects++;
+    }
+
+    if (lockedProjects == 0) {
+      return null;
+    }
+    log.info("Read {} dependencies from lockfiles of {} projects", merged.size(), lockedProjects);
+    return new HashSet<>(merged.values());
+  }
+
+  private static boolean hasBuildFile(File dir) {
+    return new File(dir, "build.gradle").exists() || new File(dir, "build.gradle.kts").exists();
+  }
+
+  /**
+   * Returns coordinates -> configurations for one project. The entry under {@link #EMPTY_ENTRY}
+   * holds every configuration the lockfile covers, including the ones resolving to nothing.
+   */
+  static Map<String, Set<String>> readLockState(File dir) {
+    try {
+      File lockfile = new File(dir, LOCKFILE);
+      if (lockfile.exists()) {
+        return parseLockfile(Files.readAllLines(lockfile.toPath()));
+      }
+
+      File[] legacyLockfiles = new File(dir, LEGACY_LOCKS_DIR).listFiles((d, name) -> name.endsWith(".lockfile"));
+      if (legacyLockfiles == null || legacyLockfiles.length == 0) {
+        return null;
+      }
+      Map<String, Set<String>> state = new LinkedHashMap<>();
+      state.put(EMPTY_ENTRY, new HashSet<>());
+      for (File legacyLockfile : legacyLockfiles) {
+        String configuration = legacyLockfile.getName().replace(".lockfile", "");
+        state.get(EMPTY_ENTRY).add(configuration);
+        for (String line : Files.readAllLines(legacyLockfile.toPath())) {
+          String coordinates = line.trim();
+          if (coordinates.isEmpty() || coordinates.startsWith("#")) continue;
+          state.computeIfAbsent(coordinates, k -> new HashSet<>()).add(configuration);
+        }
+      }
+      return state;
+    } catch (IOException e) {
+      log.warn("Could not read lockfiles in {}: {}", dir, e.getMessage());
+      return null;
+    }
+  }
+
+  static Map<String, Set<String>> parseLockfile(List<String> lines) {
+    Map<String, Set<String>> state = new LinkedHashMap<>();
+    state.put(EMPTY_ENTRY, new HashSet<>());
+    for (String line : lines) {
+      String trimmed = line.trim();
+      int separator = trimmed.lastIndexOf('=');
+      if (trimmed.isEmpty() || trimmed.startsWith("#") || separator == -1) continue;
+
+      String coordinates = trimmed.substring(0, separator);
+      Set<String> configurations = new HashSet<>(Arrays.asList(trimmed.substring(separator + 1).split(",")));
+      state.get(EMPTY_ENTRY).addAll(configurations);
+      if (!EMPTY_ENTRY.equals(coordinates)) {
+        state.computeIfAbsent(coordinates, k -> new HashSet<>()).addAll(configurations);
+      }
+    }
+    return state;
+  }
+
+  private static void addLockedDependency(Map<String, DependencyNode> merged, String coordinates,
+                                          Set<String> configurations) {
+    String[] parts = coordinates.split(":");
+    if (parts.length < 3) return;
+
+    String configuration = selectConfiguration(configurations);
+    if (configuration == null) return;
+
+    DependencyNode existing = merged.get(coordinates);
+    if (existing == null) {
+      merged.put(coordinates, new DependencyNode(parts[0], parts[1], parts[2], mapConfigurationToScope(configuration)));
+    } else if (configurationPriority(configuration) < scopePriority(existing.getScope())) {
+      existing.setScope(mapConfigurationToScope(configuration));
+    }
+  }
+
+  private static String selectConfiguration(Set<String> configurations) {
+    for (String configuration : SCOPE_PRIORITY) {
+      if (configurations.contains(configuration)) return configuration;
+    }
+    return configurations.stream().filter(RELEVANT_CONFIGURATIONS::contains).sorted().findFirst().orElse(null);
+  }
+
+  private static int configurationPriority(String configuration) {
+    int index = SCOPE_PRIORITY.indexOf(configuration);
+    return index == -1 ? SCOPE_PRIORITY.size() : index;
+  }
+
+  private static int scopePriority(String scope) {
+    for (int i = 0; i < SCOPE_PRIORITY.size(); i++) {
+      if (mapConfigurationToScope(SCOPE_PRIORITY.get(i)).equals(scope)) return i;
+    }
+    return SCOPE_PRIORITY.size();
+  }
+}
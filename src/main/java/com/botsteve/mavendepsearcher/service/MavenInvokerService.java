@@ -1,7 +1,9 @@
 package com.botsteve.mavendepsearcher.service;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.maven.shared.invoker.DefaultInvocationRequest;
 import org.apache.maven.shared.invoker.DefaultInvoker;
@@ -20,38 +22,13 @@ public class MavenInvokerService {
                                                               String goals,
                                                               String mavenOpts,
                                                               String jdkPath) {
-    File toolchainsFile = null;
-    toolchainsFile = new File(com.botsteve.mavendepsearcher.utils.Utils.getRepositoriesPath(), "toolchains.xml");
-    if (toolchainsFile.exists()) {
+    File toolchainsFile = toolchainsFile();
+    if (toolchainsFile != null) {
         goals += " --toolchains " + toolchainsFile.getAbsolutePath();
     }
 
-    // Set Maven executable and home
-    String mavenHome = System.getenv("MAVEN_HOME");
-    if (mavenHome == null || mavenHome.isBlank()) {
-        log.info("MAVEN_HOME not set, attempting to detect maven from PATH or common locations...");
-        mavenHome = detectMavenHome();
-    }
-
-    if (mavenHome == null || mavenHome.isBlank()) {
-        throw new DepViewerException("MAVEN_HOME environment variable is not set. Please configure it to point to your Maven installation.");
-    }
-
-    File mavenHomeFile = new File(mavenHome);
-    if (!mavenHomeFile.exists() || !mavenHomeFile.isDirectory()) {
-         throw new DepViewerException("MAVEN_HOME path is invalid: " + mavenHome);
-    }
-
-    String os = System.getProperty("os.name").toLowerCase();
-    String mvnExecutableName = os.contains("win") ? "bin/mvn.cmd" : "bin/mvn";
-    File mavenExecutable = new File(mavenHomeFile, mvnExecutableName);
-
-    if (!mavenExecutable.exists()) {
-        throw new DepViewerException("Maven executable not found at: " + mavenExecutable.getAbsolutePath());
-    }
-
-    log.info("Maven home: {}", mavenHomeFile.getAbsolutePath());
-    log.info("Maven executable: {}", mavenExecutable.getAbsolutePath());
+    File mavenHomeFile = resolveMavenHome();
+    File mavenExecutable = mavenExecutable(mavenHomeFile);
 
     Invoker invoker = new DefaultInvoker();
     invoker.setMavenHome(mavenHomeFile);
@@ -92,6 +69,61 @@ public class MavenInvokerService {
     return outputHandler;
   }
 
+  /**
+   * The command line the invoker would run, batch and debug mode included, for callers running
+   * Maven as a process of their own to stream its output.
+   */
+  public static List<String> getMavenCommandLine(String goals) {
+    List<String> command = new ArrayList<>();
+    command.add(mavenExecutable(resolveMavenHome()).getAbsolutePath());
+    command.add("--batch-mode");
+    command.add("-X");
+    command.addAll(Arrays.asList(goals.trim().split(" ")));
+    File toolchainsFile = toolchainsFile();
+    if (toolchainsFile != null) {
+      command.add("--toolchains");
+      command.add(toolchainsFile.getAbsolutePath());
+    }
+    return command;
+  }
+
+  private static File toolchainsFile() {
+    File toolchainsFile = new File(com.botsteve.mavendepsearcher.utils.Utils.getRepositoriesPath(), "toolchains.xml");
+    return toolchainsFile.exists() ? toolchainsFile : null;
+  }
+
+  private static File resolveMavenHome() {
+    // MAVEN_HOME first, then the usual install locations
+    String mavenHome = System.getenv("MAVEN_HOME");
+    if (mavenHome == null || mavenHome.isBlank()) {
+        log.info("MAVEN_HOME not set, attempting to detect maven from PATH or common locations...");
+        mavenHome = detectMavenHome();
+    }
+
+    if (mavenHome == null || mavenHome.isBlank()) {
+        throw new DepViewerException("MAVEN_HOME environment variable is not set. Please configure it to point to your Maven installation.");
+    }
+
+    File mavenHomeFile = new File(mavenHome);
+    if (!mavenHomeFile.exists() || !mavenHomeFile.isDirectory()) {
+         throw new DepViewerException("MAVEN_HOME path is invalid: " + mavenHome);
+    }
+    log.info("Maven home: {}", mavenHomeFile.getAbsolutePath());
+    return mavenHomeFile;
+  }
+
+  private static File mavenExecutable(File mavenHomeFile) {
+    String os = System.getProperty("os.name").toLowerCase();
+    String mvnExecutableName = os.contains("win") ? "bin/mvn.cmd" : "bin/mvn";
+    File mavenExecutable = new File(mavenHomeFile, mvnExecutableName);
+
+    if (!mavenExecutable.exists()) {
+        throw new DepViewerException("Maven executable not found at: " + mavenExecutable.getAbsolutePath());
+    }
+    log.info("Maven executable: {}", mavenExecutable.getAbsolutePath());
+    return mavenExecutable;
+  }
+
   private static String detectMavenHome() {
     // 1. Check if 'mvn' is in the PATH
     String path = System.getenv("PATH");
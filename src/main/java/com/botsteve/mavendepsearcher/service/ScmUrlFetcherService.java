@@ -11,6 +11,8 @@ import java.util.Map;
 import java.util.Set;
 import javax.xml.parsers.ParserConfigurationException;
 import org.apache.maven.shared.invoker.MavenInvocationException;
+import com.botsteve.mavendepsearcher.model.BomComponent;
+import com.botsteve.mavendepsearcher.model.CycloneDxBom;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
 import org.xml.sax.SAXException;
 
@@ -29,32 +31,12 @@ public class ScmUrlFetcherService {
 
   private static Map<String, String> parseBomFile(String bomFilePath) throws IOException {
     Map<String, String> vcsUrlMap = new HashMap<>();
-    File bomFile = new File(bomFilePath);
-    
-    com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-    com.fasterxml.jackson.databind.JsonNode rootNode = mapper.readTree(bomFile);
-    com.fasterxml.jackson.databind.JsonNode components = rootNode.get("components");
+    CycloneDxBom bom = CycloneDxBomReader.read(new File(bomFilePath));
 
-    if (components != null && components.isArray()) {
-      for (com.fasterxml.jackson.databind.JsonNode component : components) {
-        String groupId = component.path("group").asText();
-        String artifactId = component.path("name").asText();
-        String version = component.path("version").asText();
-        String vcsUrl = "SCM URL not found";
-
-        com.fasterxml.jackson.databind.JsonNode externalReferences = component.path("externalReferences");
-        if (externalReferences.isArray()) {
-          for (com.fasterxml.jackson.databind.JsonNode ref : externalReferences) {
-            if ("vcs".equals(ref.path("type").asText())) {
-              vcsUrl = ref.path("url").asText();
-              break;
-            }
-          }
-        }
-        
-        String key = groupId + ":" + artifactId + ":" + version;
-        vcsUrlMap.put(key, fixNonResolvableScmRepositorise(ScmEnrichmentService.convertSCM(vcsUrl), artifactId));
-      }
+    for (BomComponent component : bom.getComponents().values()) {
+      String vcsUrl = component.getVcsUrl() != null ? component.getVcsUrl() : "SCM URL not found";
+      vcsUrlMap.put(component.getCoordinates(),
+                    fixNonResolvableScmRepositorise(ScmEnrichmentService.convertSCM(vcsUrl), component.getName()));
     }
 
     return vcsUrlMap;
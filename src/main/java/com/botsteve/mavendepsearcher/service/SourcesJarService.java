@@ -0,0 +1,154 @@
+package com.botsteve.mavendepsearcher.service;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+import static com.botsteve.mavendepsearcher.utils.Utils.getPropertyFromSetting;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+
+/**
+ * Fast path that provides a dependency's sources from its -sources.jar instead of its Git
+ * repository.
+ *
+ * Jars are looked up in the local Maven repository, then in the Gradle cache, then downloaded
+ * from {@link #SOURCES_REPOSITORY_URL} into app_data/sources-cache. The result is source only,
+ * it cannot be built.
+ */
+@Slf4j
+public class SourcesJarService {
+
+  public static final String SOURCES_REPOSITORY_URL = "SOURCES_REPOSITORY_URL";
+  public static final String MAVEN_LOCAL_REPOSITORY = "MAVEN_LOCAL_REPOSITORY";
+
+  /**
+   * Written into directories filled from sources jars, so builds can tell them apart from checkouts.
+   */
+  public static final String SOURCES_ONLY_MARKER = ".sources-only";
+
+  private static final String DEFAULT_REPOSITORY_URL = "https://repo.maven.apache.org/maven2";
+  private static final String CACHE_DIR = "sources-cache";
+  private static volatile HttpClient httpClient;
+
+  /**
+   * Returns the sources jar of the artifact, downloading it when no local copy exists, or null
+   * when the repository has none.
+   */
+  public static Path findSourcesJar(DependencyNode artifact) throws IOException, InterruptedException {
+    String fileName = artifact.getArtifactId() + "-" + artifact.getVersion() + "-sources.jar";
+    Path relative = Paths.get(artifact.getGroupId().replace('.', '/'), artifact.getArtifactId(), artifact.getVersion());
+
+    Path mavenLocal = localMavenRepository().resolve(relative).resolve(fileName);
+    if (Files.isRegularFile(mavenLocal)) return mavenLocal;
+
+    Path gradleCached = findInGradleCache(artifact, fileName);
+    if (gradleCached != null) return gradleCached;
+
+    Path downloaded = getAppDataPath(CACHE_DIR).resolve(relative).resolve(fileName);
+    if (Files.isRegularFile(downloaded)) return downloaded;
+    return download(relative, fileName, downloaded);
+  }
+
+  /**
+   * Extracts the jar into targetDir. Entries are inflated in parallel straight from the jar into
+   * their target files, without temporary copies; entries escaping targetDir are rejected.
+   */
+  public static void extract(Path jar, Path targetDir) throws IOException {
+    Path target = targetDir.toAbsolutePath().normalize();
+    Files.createDirectories(target);
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      List<? extends ZipEntry> entries = zip.stream().filter(entry -> !entry.isDirectory()).toList();
+      entries.parallelStream().forEach(entry -> {
+        Path out = target.resolve(entry.getName()).normalize();
+        if (!out.startsWith(target)) {
+          throw new UncheckedIOException(new IOException("Entry outside of target directory: " + entry.getName()));
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+          Files.createDirectories(out.getParent());
+          Files.copy(in, out, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      log.info("Extracted {} files from {} into {}", entries.size(), jar.getFileName(), target);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Created on first use, after the download task has installed the proxy selector.
+   */
+  private static HttpClient httpClient() {
+    if (httpClient == null) {
+      synchronized (SourcesJarService.class) {
+        if (httpClient == null) {
+          HttpClient.Builder builder = HttpClient.newBuilder()
+              .followRedirects(HttpClient.Redirect.NORMAL)
+              .connectTimeout(Duration.ofSeconds(30));
+          if (ProxySelector.getDefault() != null) {
+            builder.proxy(ProxySelector.getDefault());
+          }
+          httpClient = builder.build();
+        }
+      }
+    }
+    return httpClient;
+  }
+
+  private static Path localMavenRepository() {
+    return Paths.get(getPropertyFromSetting(MAVEN_LOCAL_REPOSITORY,
+                                            Paths.get(System.getProperty("user.home"), ".m2", "repository").toString()));
+  }
+
+  private static Path findInGradleCache(DependencyNode artifact, String fileName) throws IOException {
+    String gradleUserHome = System.getenv("GRADLE_USER_HOME");
+    Path home = gradleUserHome != null ? Paths.get(gradleUserHome) : Paths.get(System.getProperty("user.home"), ".gradle");
+    Path versionDir = home.resolve(Paths.get("caches", "modules-2", "files-2.1", artifact.getGroupId(),
+                                             artifact.getArtifactId(), artifact.getVersion()));
+    if (!Files.isDirectory(versionDir)) return null;
+    // Files are stored under a directory named after their SHA-1
+    try (Stream<Path> hashDirs = Files.list(versionDir)) {
+      return hashDirs.map(dir -> dir.resolve(fileName)).filter(Files::isRegularFile).findFirst().orElse(null);
+    }
+  }
+
+  private static Path download(Path relative, String fileName, Path destination) throws IOException, InterruptedException {
+    String baseUrl = getPropertyFromSetting(SOURCES_REPOSITORY_URL, DEFAULT_REPOSITORY_URL).replaceAll("/+$", "");
+    URI uri = URI.create(baseUrl + "/" + relative.toString().replace('\\', '/') + "/" + fileName);
+    Files.createDirectories(destination.getParent());
+    Path temp = Files.createTempFile(destination.getParent(), fileName, ".part");
+    try {
+      HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(5)).GET().build();
+      HttpResponse<Path> response = httpClient().send(request, HttpResponse.BodyHandlers.ofFile(temp));
+      if (response.statusCode() == 404) {
+        log.info("No sources jar at {}", uri);
+        return null;
+      }
+      if (response.statusCode() != 200) {
+        throw new IOException("Downloading " + uri + " failed with HTTP " + response.statusCode());
+      }
+      Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      log.info("Downloaded {}", uri);
+      return destination;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.botsteve.mavendepsearcher.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+
+/**
+ * Maps a dependency version to the repository's release tags.
+ *
+ * The generic match finds an X.Y.Z version anywhere in the tag name (dots or underscores) and
+ * requires the version to end on a boundary, so 1.2.3 matches v1.2.3 and 1.2.3.Final but not
+ * 1.2.30 or 1.2.3.1. Once a tag was chosen for a repository its naming convention is stored as a template
+ * (v${version}, project-${version}, rel/${version_}, ...), so later versions of the same
+ * repository are looked up by exact name; the generic match is only the fallback.
+ */
+@Slf4j
+public class TagResolver {
+
+  private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)[._](\\d+)[._](\\d+)(.*)");
+  /**
+   * What follows the version in a longer version: 1.2.30, 1.2.3.1, 1_2_3_1 or 1.2.3-1.
+   */
+  private static final Pattern FURTHER_VERSION_PART = Pattern.compile("[._-]?\\d");
+  private static final Pattern RELEASE_SUFFIX = Pattern.compile("(?i)([._-]?(release|final|ga))?");
+  private static final String[] SEPARATORS = {".", "_", "-"};
+  private static final String VERSION_TOKEN = "${version";
+
+  private static final String TEMPLATES_DIR = "tag-templates";
+  private static final String TEMPLATES_FILE = "templates.properties";
+  private static volatile Map<String, String> templates;
+
+  /**
+   * Returns the version part of a tag name ("v1_2_3-rc1" -> "1.2.3-rc1"), or the name itself
+   * when it holds no X.Y.Z version.
+   */
+  public static String normalizeVersion(String tagName) {
+    Matcher matcher = VERSION_PATTERN.matcher(tagName);
+    if (matcher.find()) {
+      return matcher.group(1) + "." + matcher.group(2) + "." + matcher.group(3) + matcher.group(4);
+    }
+    return tagName;
+  }
+
+  public static boolean isMatchingVersionTag(String version, String tagName) {
+    String normalized = normalizeVersion(Repository.shortenRefName(tagName).toLowerCase());
+    String expected = version.toLowerCase();
+    return normalized.startsWith(expected) && !FURTHER_VERSION_PART.matcher(normalized.substring(expected.length())).lookingAt();
+  }
+
+  /**
+   * Returns the tags matching the version: the tag named by the repository's learned template when
+   * it exists, otherwise every tag passing the generic match.
+   */
+  public static List<Ref> matchingTags(String uri, String version, Collection<Ref> tags) {
+    String template = uri == null ? null : getTemplates().get(GitMirrorStore.mirrorKey(uri));
+    if (template != null) {
+      String expected = Constants.R_TAGS + applyTemplate(template, version);
+      List<Ref> exact = tags.stream().filter(tag -> tag.getName().equals(expected)).toList();
+      if (!exact.isEmpty()) {
+        return exact;
+      }
+      log.debug("Learned tag {} not found for {}, falling back to version matching", expected, uri);
+    }
+    return tags.stream().filter(tag -> isMatchingVersionTag(version, tag.getName())).toList();
+  }
+
+  /**
+   * Remembers the naming convention of the tag chosen for the version, if it has a recognisable one.
+   */
+  public static void learn(String uri, String version, String tagName) {
+    if (uri == null) return;
+    String template = deriveTemplate(version, Repository.shortenRefName(tagName));
+    String key = GitMirrorStore.mirrorKey(uri);
+    if (template == null || template.equals(getTemplates().get(key))) return;
+
+    getTemplates().put(key, template);
+    Properties properties = new Properties();
+    properties.putAll(getTemplates());
+    AppDataProperties.store(TEMPLATES_DIR, TEMPLATES_FILE, properties, "Learned release tag templates per repository");
+    log.info("Learned tag template {} for {}", template, uri);
+  }
+
+  /**
+   * Replaces the version in the tag name with a placeholder recording its separator, e.g.
+   * ("1.2.3", "rel/1_2_3") -> "rel/${version_}". Returns null when the version is not found on
+   * a boundary or the tag carries a pre-release or build suffix that would not fit other versions.
+   */
+  static String deriveTemplate(String version, String tagName) {
+    for (String separator : SEPARATORS) {
+      String rendered = version.replace(".", separator);
+      int index = tagName.indexOf(rendered);
+      while (index != -1) {
+        int end = index + rendered.length();
+        boolean boundary = (index == 0 || !Character.isDigit(tagName.charAt(index - 1)))
+            && (end == tagName.length() || !Character.isDigit(tagName.charAt(end)));
+        if (boundary && RELEASE_SUFFIX.matcher(tagName.substring(end)).matches()) {
+          String token = VERSION_TOKEN + (separator.equals(".") ? "" : separator) + "}";
+          return tagName.substring(0, index) + token + tagName.substring(end);
+        }
+        index = tagName.indexOf(rendered, index + 1);
+      }
+    }
+    return null;
+  }
+
+  static String applyTemplate(String template, String version) {
+    for (String separator : SEPARATORS) {
+      String token = VERSION_TOKEN + (separator.equals(".") ? "" : separator) + "}";
+      if (template.contains(token)) {
+        return template.replace(token, version.replace(".", separator));
+      }
+    }
+    return template;
+  }
+
+  private static Map<String, String> getTemplates() {
+    if (templates == null) {
+      synchronized (TagResolver.class) {
+        if (templates == null) {
+          Map<String, String> loaded = new ConcurrentHashMap<>();
+          AppDataProperties.load(TEMPLATES_DIR, TEMPLATES_FILE)
+              .forEach((key, value) -> loaded.put(key.toString(), value.toString()));
+          templates = loaded;
+        }
+      }
+    }
+    return templates;
+  }
+}
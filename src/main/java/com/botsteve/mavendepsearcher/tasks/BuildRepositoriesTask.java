@@ -1,31 +1,38 @@
 package com.botsteve.mavendepsearcher.tasks;
 
-import static com.botsteve.mavendepsearcher.service.MavenInvokerService.getMavenInvokerResult;
+import static com.botsteve.mavendepsearcher.service.MavenInvokerService.getMavenCommandLine;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.getErrorAlertAndCloseProgressBar;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.showAlert;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.showError;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.updateProgressBarAndLabel;
 import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.JDKS;
 import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.getJavaVersionMaven;
-import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.resolveJavaPathToBeUsed;
 import static com.botsteve.mavendepsearcher.utils.JavaVersionResolver.resolveJavaVersionToEnvProperty;
 import static com.botsteve.mavendepsearcher.utils.Utils.concatenateRepoNames;
+import static com.botsteve.mavendepsearcher.utils.Utils.getAppDataPath;
+import static com.botsteve.mavendepsearcher.utils.Utils.getMinutesLimitSetting;
 import static com.botsteve.mavendepsearcher.utils.Utils.getPropertyFromSetting;
 import static com.botsteve.mavendepsearcher.utils.Utils.getRepositoriesPath;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.scene.control.Label;
@@ -34,8 +41,32 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
 import com.botsteve.mavendepsearcher.exception.DepViewerException;
+import com.botsteve.mavendepsearcher.process.CompressedLog;
+import com.botsteve.mavendepsearcher.process.FailureClassifier;
+import com.botsteve.mavendepsearcher.process.ProcessResult;
+import com.botsteve.mavendepsearcher.process.ProcessRunner;
+import com.botsteve.mavendepsearcher.model.BuildAttempt;
+import com.botsteve.mavendepsearcher.model.BuildMode;
+import com.botsteve.mavendepsearcher.service.BuildPlanner;
+import com.botsteve.mavendepsearcher.service.BuildProfileStore;
+import com.botsteve.mavendepsearcher.service.BuildResultLedger;
+import com.botsteve.mavendepsearcher.service.BuildScheduler;
+import com.botsteve.mavendepsearcher.service.GitDownloadService;
+import com.botsteve.mavendepsearcher.service.GradleDaemonManager;
 import com.botsteve.mavendepsearcher.service.GradleDependencyAnalyzerService;
-
+import com.botsteve.mavendepsearcher.service.SourcesJarService;
+import com.botsteve.mavendepsearcher.utils.JavaVersionInference;
+import com.botsteve.mavendepsearcher.utils.PermissionRepair;
+
+/**
+ * Builds the downloaded repositories of a project in the dependency order of a
+ * {@link BuildPlanner} plan, the repositories of each wave several at a time through a
+ * {@link BuildScheduler}. Each build keeps its state (command, JDK) in its own {@link RepoBuild}
+ * and its output goes to a compressed log per repository, watched by a {@link FailureClassifier}
+ * that stops builds bound to fail. Repositories whose inputs
+ * did not change since their last successful build, per the {@link BuildResultLedger}, are
+ * reported up-to-date without running any tool.
+ */
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Slf4j
@@ -44,20 +75,43 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
   private static final boolean IS_WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
   private static final String GRADLE_WRAPPER = IS_WINDOWS ? "gradlew.bat" : "./gradlew";
   private static final String[] GRADLE_COMMAND = {GRADLE_WRAPPER, "clean", "build", "--info"};
-  private static final String[] GRADLE_STOP_COMMAND = {GRADLE_WRAPPER, "--stop"};
   private static final String MAVEN_OPTS = "-Dmaven.compiler.fork=true -DargLine=\"-Xmx2g\"";
+  public static final String BUILD_TIMEOUT_MINUTES = "BUILD_TIMEOUT_MINUTES";
+  public static final String BUILD_INACTIVITY_TIMEOUT_MINUTES = "BUILD_INACTIVITY_TIMEOUT_MINUTES";
+  private static final int DEFAULT_BUILD_TIMEOUT_MINUTES = 90;
+  private static final int DEFAULT_INACTIVITY_TIMEOUT_MINUTES = 15;
   private static final String JAVA_HOME = "JAVA_HOME";
+  private static final String BUILD_LOGS_DIR = "build-logs";
+  private static final long TEST_HEAP_MB = 2048;
+  private static final long DEFAULT_TOOL_HEAP_MB = 512;
+  private static final Pattern XMX = Pattern.compile("-Xmx(\\d+)([kKmMgG]?)");
   public static final String RETRY_WITH_LOWER_VERSION = "Failed to build using java version {}, retry with lower version";
   public static final String ALL_BUILDS_FAILED = "All attempts to build failed.";
+  private static final List<String> CANDIDATE_JDKS = Stream.concat(Stream.of(JAVA_HOME), JDKS.stream()).toList();
   private final ProgressBar progressBar;
   private final Label progressLabel;
-  private String currentRepo;
-  private Set<String> reposBuildSuccessfully = new HashSet<>();
-  private Map<String, String> repoToBuildStatus = new HashMap<>(); // Renamed from reposBuildSuccessfullyToJavaVersion
-  private Set<String> reposBuildFailed = new HashSet<>();
-  private static String currentJavaVersionUsed;
+  private final Set<String> reposBuildSuccessfully = ConcurrentHashMap.newKeySet();
+  private final Map<String, String> repoToBuildStatus = new ConcurrentHashMap<>(); // Renamed from reposBuildSuccessfullyToJavaVersion
+  private final Set<String> reposBuildFailed = ConcurrentHashMap.newKeySet();
+  private final Set<String> reposUpToDate = ConcurrentHashMap.newKeySet();
+  /**
+   * Fingerprints of the repositories built or up-to-date in this run, hashed into the
+   * fingerprints of their dependents.
+   */
+  private final Map<File, String> fingerprints = new ConcurrentHashMap<>();
   private final String projectName;
-  private String currentCommandExecuted;
+  private final BuildMode buildMode;
+  private final Map<String, RepoBuild> runningBuilds = new ConcurrentHashMap<>();
+  private volatile BuildProfileStore profileStore;
+  private volatile BuildResultLedger ledger;
+  private volatile int completedBuilds;
+  private volatile int totalBuilds;
+  private volatile long startMillis;
+  /**
+   * Limits of each build process, null for none.
+   */
+  private volatile Duration buildTimeout;
+  private volatile Duration inactivityTimeout;
 
   @Override
   protected void failed() {
@@ -65,17 +119,30 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
     Throwable exception = getException();
     if (exception != null) {
       log.error(exception.getMessage(), exception);
-      getErrorAlertAndCloseProgressBar(String.format("Build failed for %s repository !", currentRepo),
-                                       progressBar,
-                                       progressLabel);
+      getErrorAlertAndCloseProgressBar("Build failed: " + exception.getMessage(), progressBar, progressLabel);
     }
   }
 
+  /**
+   * Running builds are killed by their process runners polling {@link #isCancelled()}.
+   */
+  @Override
+  protected void cancelled() {
+    super.cancelled();
+    showAlert("Dependencies build task cancelled! \n" +
+              concatenateRepoNames("Repos build successfully:", new TreeSet<>(reposBuildSuccessfully)) + "\n\n" +
+              concatenateRepoNames("Repos build failed:", new TreeSet<>(reposBuildFailed)));
+    progressBar.setVisible(false);
+    progressLabel.setVisible(false);
+  }
+
   @Override
   protected void succeeded() {
     showAlert("Dependencies build task finished! \n" +
-              concatenateRepoNames("Repos build successfully:", reposBuildSuccessfully) + "\n\n" +
-              concatenateRepoNames("Repos build failed:", reposBuildFailed));
+              describeDuration() + "\n\n" +
+              concatenateRepoNames("Repos build successfully:", new TreeSet<>(reposBuildSuccessfully)) + "\n\n" +
+              concatenateRepoNames("Repos up-to-date:", new TreeSet<>(reposUpToDate)) + "\n\n" +
+              concatenateRepoNames("Repos build failed:", new TreeSet<>(reposBuildFailed)));
     progressBar.setVisible(false);
     progressLabel.setVisible(false);
   }
@@ -84,18 +151,32 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
   protected Map<String, String> call() throws Exception {
     var repositoriesPath = getRepositoriesPath(projectName);
     if (isDownloadRepositoriesEmpty(repositoriesPath)) throw new DepViewerException("No repositories found!");
-    
+
     // Generate toolchains.xml before build
     try {
         com.botsteve.mavendepsearcher.utils.ToolchainsGenerator.generateToolchainsXml(com.botsteve.mavendepsearcher.utils.Utils.loadSettings());
     } catch (Exception e) {
         log.warn("Failed to generate toolchains.xml, Maven builds might fail if exact JDKs are required.", e);
     }
-    
+
+    startMillis = System.currentTimeMillis();
+    buildTimeout = getMinutesLimitSetting(BUILD_TIMEOUT_MINUTES, DEFAULT_BUILD_TIMEOUT_MINUTES);
+    inactivityTimeout = getMinutesLimitSetting(BUILD_INACTIVITY_TIMEOUT_MINUTES, DEFAULT_INACTIVITY_TIMEOUT_MINUTES);
+    profileStore = BuildProfileStore.load();
+    ledger = BuildResultLedger.load();
     buildProject(repositoriesPath);
     return repoToBuildStatus;
   }
 
+  /**
+   * Compares this run with the average successful build in the same mode.
+   */
+  private String describeDuration() {
+    String duration = String.format("%s build took %d s", buildMode, (System.currentTimeMillis() - startMillis) / 1000);
+    Long average = profileStore == null ? null : profileStore.averageSuccessMillis(buildMode);
+    return average == null ? duration : duration + String.format(", a repository takes %d s on average in this mode", average / 1000);
+  }
+
   private boolean isDownloadRepositoriesEmpty(String repositoriesPath) {
     File repositoriesDir = new File(repositoriesPath);
 
@@ -116,18 +197,22 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
       File[] repositories = repositoriesDir.listFiles(File::isDirectory);
       updateProgressBarAndLabel("Clean up exiting download repos!", progressBar, progressLabel);
       if (repositories != null) {
+        List<File> buildable = new ArrayList<>();
         for (File repo : repositories) {
-          log.info("Building repository: {}", repo.getName());
-          currentRepo = repo.getName();
-          updateProgressBarAndLabel("Building repository: " + repo.getName(), progressBar, progressLabel);
-          try {
-            buildRepository(repo);
-            reposBuildSuccessfully.add(currentRepo);
-            repoToBuildStatus.put(currentRepo, "Success: Built with " + formatJavaVersion(currentJavaVersionUsed) + " (Command: " + currentCommandExecuted + ")");
-          } catch (Exception e) {
-            reposBuildFailed.add(currentRepo);
-            repoToBuildStatus.put(currentRepo, "Failed: " + e.getMessage() + (currentCommandExecuted != null ? " (Command: " + currentCommandExecuted + ")" : ""));
+          if (new File(repo, SourcesJarService.SOURCES_ONLY_MARKER).exists()) {
+            log.info("Skipping {}, it holds sources jars only", repo.getName());
+            reposBuildFailed.add(repo.getName());
+            repoToBuildStatus.put(repo.getName(), "Skipped: sources jar only, download it without 'Sources jars only' to build");
+            continue;
           }
+          buildable.add(repo);
+        }
+        totalBuilds = buildable.size();
+        BuildPlanner.Plan plan = BuildPlanner.plan(buildable);
+        BuildScheduler scheduler = BuildScheduler.fromSettings();
+        for (List<File> wave : plan.getWaves()) {
+          if (isCancelled()) break;
+          buildWave(scheduler, plan, wave);
         }
       } else {
         log.error("No repositories found in the directory.");
@@ -139,250 +224,384 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
     }
   }
 
-  private void buildRepository(File repo) {
-    if (new File(repo, "build.gradle").exists() || new File(repo, "build.gradle.kts").exists()) {
-      tryGradleBuildWithDifferentJdks(repo);
-    } else if (new File(repo, "pom.xml").exists()) {
-      tryMavenBuildWithDifferentJdks(repo);
-    } else if (new File(repo, "build.xml").exists()) {
-      tryAntBuildWithDifferentJdks(repo);
+  /**
+   * Builds one wave of the plan in parallel; repositories other repositories depend on are
+   * installed in the local Maven repository for the following waves.
+   */
+  private void buildWave(BuildScheduler scheduler, BuildPlanner.Plan plan, List<File> wave) {
+    Map<String, RepoBuild> repoBuilds = new ConcurrentHashMap<>();
+    List<BuildScheduler.Build<RepoBuild>> builds = new ArrayList<>();
+    for (File repo : wave) {
+      RepoBuild repoBuild = new RepoBuild(repo, plan.hasDependents(repo));
+      repoBuild.upstream = plan.getDependencies().getOrDefault(repo, Set.of());
+      if (isUpToDate(repoBuild)) continue;
+      repoBuilds.put(repoBuild.name, repoBuild);
+      builds.add(new BuildScheduler.Build<>(repoBuild.name, expectedHeapMb(repo), () -> {
+        buildRepository(repoBuild);
+        return repoBuild;
+      }));
+    }
+    int completedBefore = completedBuilds;
+    scheduler.run(builds, new BuildScheduler.Listener<>() {
+      @Override
+      public void started(BuildScheduler.Build<RepoBuild> build) {
+        log.info("Building repository: {}", build.getName());
+        runningBuilds.put(build.getName(), repoBuilds.get(build.getName()));
+        publishStatus();
+      }
+
+      @Override
+      public void finished(BuildScheduler.Outcome<RepoBuild> outcome, int completed, int total) {
+        recordOutcome(repoBuilds.get(outcome.getName()), outcome.getFailure());
+        runningBuilds.remove(outcome.getName());
+        completedBuilds = completedBefore + completed;
+        updateProgress(completedBuilds, totalBuilds);
+        publishStatus();
+      }
+    }, this::isCancelled);
+  }
+
+  /**
+   * Reports the repository up-to-date when the JDK that built its revision before would build
+   * the same inputs again.
+   */
+  private boolean isUpToDate(RepoBuild build) {
+    String knownGood = profileStore.knownGoodJdk(build.name, build.revision);
+    String jdkPath = knownGood == null ? null : resolveJdkPath(knownGood);
+    if (jdkPath == null || jdkPath.isBlank()) return false;
+    String fingerprint = build.fingerprint(jdkPath);
+    String status = ledger.upToDateStatus(build.repo, fingerprint);
+    if (status == null) return false;
+
+    log.info("{} is up-to-date, its last build had the same commit, command, JDK and environment", build.name);
+    fingerprints.put(build.repo, fingerprint);
+    reposUpToDate.add(build.name);
+    repoToBuildStatus.put(build.name, "Up-to-date: " + status);
+    completedBuilds++;
+    updateProgress(completedBuilds, totalBuilds);
+    return true;
+  }
+
+  private void recordOutcome(RepoBuild build, Exception failure) {
+    if (failure == null) {
+      String status = "Built with " + formatJavaVersion(build.javaVersionUsed) + " (Command: " + build.commandExecuted + ")";
+      reposBuildSuccessfully.add(build.name);
+      repoToBuildStatus.put(build.name, "Success: " + status);
+      String fingerprint = build.fingerprint(build.jdkPath);
+      if (fingerprint != null) fingerprints.put(build.repo, fingerprint);
+      ledger.recordSuccess(build.repo, fingerprint, status);
     } else {
-      log.warn("No recognizable build file found in {}", repo.getName());
-      throw new DepViewerException("No recognizable build file (pom.xml, build.gradle, build.xml) found");
+      ledger.forget(build.repo);
+      reposBuildFailed.add(build.name);
+      repoToBuildStatus.put(build.name, "Failed: " + failure.getMessage() + (build.commandExecuted != null ? " (Command: " + build.commandExecuted + ", log: " + build.logFile() + ")" : ""));
     }
   }
 
-  private void tryMavenBuildWithDifferentJdks(File repo) {
-    var jdks = new ArrayList<>(JDKS);
-    if (runMavenBuildWithDetectedJavaVersion(repo, jdks)) return;
+  /**
+   * Shows how many builds are done and what each running build is executing.
+   */
+  private void publishStatus() {
+    StringBuilder status = new StringBuilder(String.format("Built %d/%d repositories", completedBuilds, totalBuilds));
+    if (!runningBuilds.isEmpty()) {
+      status.append(", running: ").append(runningBuilds.values().stream()
+                                              .sorted(Comparator.comparing(build -> build.name))
+                                              .map(RepoBuild::describe)
+                                              .collect(Collectors.joining(", ")));
+    }
+    updateProgressBarAndLabel(status.toString(), progressBar, progressLabel);
+  }
 
-    String currentJdkPath = System.getenv(JAVA_HOME);
-    boolean buildSuccessful = false;
+  /**
+   * Heap the build is expected to take: the forked test JVM plus the build tool itself, as
+   * declared in gradle.properties or .mvn/jvm.config.
+   */
+  static long expectedHeapMb(File repo) {
+    return TEST_HEAP_MB + toolHeapMb(repo);
+  }
 
-    for (String property : jdks) {
+  private static long toolHeapMb(File repo) {
+    long toolHeap = DEFAULT_TOOL_HEAP_MB;
+    for (String file : List.of("gradle.properties", ".mvn/jvm.config")) {
+      Path path = repo.toPath().resolve(file);
+      if (!Files.isRegularFile(path)) continue;
       try {
-        runMavenBuild(repo, currentJdkPath);
-        currentJavaVersionUsed = property;
-        buildSuccessful = true;
-        break;
-      } catch (Exception e) {
-        if (isFatalError(e)) throw (RuntimeException) e;
-        log.error(RETRY_WITH_LOWER_VERSION, currentJdkPath);
-        currentJdkPath = getPropertyFromSetting(property);
+        Matcher matcher = XMX.matcher(Files.readString(path));
+        if (matcher.find()) {
+          long value = Long.parseLong(matcher.group(1));
+          toolHeap = switch (matcher.group(2).toLowerCase()) {
+            case "g" -> value * 1024;
+            case "m" -> value;
+            case "k" -> value / 1024;
+            default -> value / (1024 * 1024);
+          };
+        }
+      } catch (IOException | RuntimeException e) {
+        log.debug("Could not read the heap size from {}: {}", path, e.getMessage());
       }
     }
+    return toolHeap;
+  }
 
-    if (!buildSuccessful) {
-      log.error(ALL_BUILDS_FAILED);
-      throw new DepViewerException(ALL_BUILDS_FAILED);
+  private void buildRepository(RepoBuild build) {
+    build.openLog();
+    try {
+      buildWithTool(build);
+    } finally {
+      build.closeLog();
     }
   }
 
-  private boolean runMavenBuildWithDetectedJavaVersion(File repo, ArrayList<String> jdks) {
-    var javaVersionMaven = getJavaVersionMaven(repo);
-    var resolvedjdkPath = resolveJavaPathToBeUsed(javaVersionMaven);
-    try {
-      runMavenBuild(repo, resolvedjdkPath);
-      currentJavaVersionUsed = resolveJavaVersionToEnvProperty(javaVersionMaven);
-      return true;
-    } catch (Exception e1) {
-      if (isFatalError(e1)) throw (RuntimeException) e1;
-      log.error("Maven build failed with resolved java version: {}", resolvedjdkPath);
-      if ("1.8".equals(javaVersionMaven) || "8".equals(javaVersionMaven)) {
-        jdks.remove("JAVA8_HOME");
-      } else if ("11.0".equals(javaVersionMaven)) {
-        jdks.remove("JAVA11_HOME");
-      } else if ("17.0".equals(javaVersionMaven)) {
-        jdks.remove("JAVA17_HOME");
-      }
+  private void buildWithTool(RepoBuild build) {
+    File repo = build.repo;
+    if (isGradleBuild(repo)) {
+      tryGradleBuildWithDifferentJdks(build);
+    } else if (new File(repo, "pom.xml").exists()) {
+      tryMavenBuildWithDifferentJdks(build);
+    } else if (new File(repo, "build.xml").exists()) {
+      tryAntBuildWithDifferentJdks(build);
+    } else {
+      log.warn("No recognizable build file found in {}", repo.getName());
+      throw new DepViewerException("No recognizable build file (pom.xml, build.gradle, build.xml) found");
     }
-    return false;
   }
 
-  private void tryGradleBuildWithDifferentJdks(File repo) {
+  private void tryMavenBuildWithDifferentJdks(RepoBuild build) {
+    // Detecting the version runs Maven, not worth it when the JDK to use is known
+    String detectedJdk = profileStore.knownGoodJdk(build.name, build.revision) != null ? null
+        : resolveJavaVersionToEnvProperty(getJavaVersionMaven(build.repo));
+    buildWithJdks(build, "maven", detectedJdk, jdkPath -> runMavenBuild(build, jdkPath));
+  }
+
+  private void tryGradleBuildWithDifferentJdks(RepoBuild build) {
     // Try detecting the compatible Java version from the Gradle wrapper first
-    String detectedJavaVersion = GradleDependencyAnalyzerService.detectJavaVersionFromGradleWrapper(repo);
-    if (detectedJavaVersion != null) {
-      String detectedJdkPath = com.botsteve.mavendepsearcher.utils.JavaVersionResolver.resolveJavaPathToBeUsed(detectedJavaVersion);
-      if (detectedJdkPath != null && !detectedJdkPath.isEmpty()) {
-        log.info("Detected compatible Java version {} for Gradle wrapper, trying JAVA_HOME={}", detectedJavaVersion, detectedJdkPath);
-        try {
-          runGradleBuild(repo, detectedJdkPath, GRADLE_STOP_COMMAND);
-          runGradleBuild(repo, detectedJdkPath, GRADLE_COMMAND);
-          currentJavaVersionUsed = com.botsteve.mavendepsearcher.utils.JavaVersionResolver.resolveJavaVersionToEnvProperty(detectedJavaVersion);
-          return;
-        } catch (Exception e) {
-          if (isFatalError(e)) throw (RuntimeException) e;
-          log.warn("Gradle build failed with detected JDK ({}), falling back to brute-force approach", detectedJdkPath);
-        }
-      }
+    String detectedJavaVersion = GradleDependencyAnalyzerService.detectJavaVersionFromGradleWrapper(build.repo);
+    // The JDK has to run the wrapper's Gradle version and compile the declared Java version
+    String declaredJavaVersion = JavaVersionInference.inferGradle(build.repo);
+    if (declaredJavaVersion != null && (detectedJavaVersion == null
+                                        || Double.parseDouble(declaredJavaVersion) > Double.parseDouble(detectedJavaVersion))) {
+      log.info("{} declares Java {}, above the {} its Gradle wrapper needs", build.name, declaredJavaVersion, detectedJavaVersion);
+      detectedJavaVersion = declaredJavaVersion;
     }
+    String detectedJdk = detectedJavaVersion == null ? null : resolveJavaVersionToEnvProperty(detectedJavaVersion);
+    buildWithJdks(build, "gradle", detectedJdk, jdkPath -> runGradleBuild(build, jdkPath));
+  }
 
-    // Fallback: try all configured JDKs
-    String currentJdkPath = System.getenv(JAVA_HOME);
-    boolean buildSuccessful = false;
+  private void tryAntBuildWithDifferentJdks(RepoBuild build) {
+    buildWithJdks(build, "ant", null, jdkPath -> runAntBuild(build, jdkPath));
+  }
+
+  /**
+   * Builds with the first JDK that works: the one that built this revision before, then the
+   * detected one, then the others ordered by their success rate with the tool. Every attempt is
+   * recorded in the {@link BuildProfileStore}; a JDK path already tried is not tried again.
+   */
+  private void buildWithJdks(RepoBuild build, String tool, String detectedJdk, JdkAttempt attempt) {
+    Set<String> candidates = new LinkedHashSet<>();
+    String knownGood = profileStore.knownGoodJdk(build.name, build.revision);
+    if (knownGood != null) {
+      log.info("{} at {} was built with {} before, trying it first", build.name, build.revision, knownGood);
+      candidates.add(knownGood);
+    }
+    if (detectedJdk != null) {
+      candidates.add(detectedJdk);
+    }
+    candidates.addAll(profileStore.orderBySuccessRate(tool, CANDIDATE_JDKS));
 
-    for (String property : JDKS) {
+    Set<String> triedPaths = new HashSet<>();
+    FailureClassifier.Cause lastCause = null;
+    for (String jdk : candidates) {
+      String jdkPath = resolveJdkPath(jdk);
+      if (jdkPath == null || jdkPath.isBlank() || !triedPaths.add(jdkPath)) continue;
+      if (isCancelled()) throw new DepViewerException("Build cancelled");
+
+      long start = System.currentTimeMillis();
       try {
-        runGradleBuild(repo, currentJdkPath, GRADLE_STOP_COMMAND);
-        runGradleBuild(repo, currentJdkPath, GRADLE_COMMAND);
-        buildSuccessful = true;
-        currentJavaVersionUsed = property;
-        break;
+        attempt.run(jdkPath);
+        profileStore.record(build.name, build.revision, new BuildAttempt(tool, jdk, build.commandExecuted, buildMode,
+                                                                         System.currentTimeMillis() - start, true,
+                                                                         System.currentTimeMillis()));
+        build.javaVersionUsed = jdk;
+        return;
+      } catch (AbortedBuildException e) {
+        throw e;
       } catch (Exception e) {
-        if (isFatalError(e)) throw (RuntimeException) e;
-        log.error(RETRY_WITH_LOWER_VERSION, currentJdkPath);
-        currentJdkPath = getPropertyFromSetting(property);
+        profileStore.record(build.name, build.revision, new BuildAttempt(tool, jdk, build.commandExecuted, buildMode,
+                                                                         System.currentTimeMillis() - start, false,
+                                                                         System.currentTimeMillis()));
+        lastCause = build.classifier.getCause();
+        if (lastCause != null && !lastCause.isRetryWithOtherJdk()) {
+          throw new DepViewerException(describeFailure(build), e);
+        }
+        log.error(RETRY_WITH_LOWER_VERSION, jdkPath);
       }
     }
 
-    if (!buildSuccessful) {
-      log.error(ALL_BUILDS_FAILED);
-      throw new DepViewerException(ALL_BUILDS_FAILED);
+    log.error(ALL_BUILDS_FAILED);
+    throw new DepViewerException(lastCause == null ? ALL_BUILDS_FAILED
+                                                   : ALL_BUILDS_FAILED + " Last failure: " + lastCause.getDescription());
+  }
+
+  private static String describeFailure(RepoBuild build) {
+    return "Build failed, " + build.classifier.getCause().getDescription() + ": " + build.classifier.getEvidence();
+  }
+
+  /**
+   * Trying other JDKs is pointless: the build tool cannot be run at all, or the build was stopped
+   * by a timeout or a cancellation.
+   */
+  private static class AbortedBuildException extends DepViewerException {
+    AbortedBuildException(String message, Throwable cause) {
+      super(message, cause);
     }
   }
 
-  private void runGradleBuild(File repo, String jdkPath, String[] command) throws IOException, InterruptedException {
-    currentCommandExecuted = String.join(" ", command);
-    ProcessBuilder processBuilder = new ProcessBuilder(command);
-    processBuilder.directory(repo);
-    processBuilder.redirectErrorStream(true);
-    processBuilder.environment().put(JAVA_HOME, jdkPath);
-    log.info("Executing gradle build command: {} with JAVA_HOME: {}", processBuilder.command(), jdkPath);
+  private static String resolveJdkPath(String jdk) {
+    return JAVA_HOME.equals(jdk) ? System.getenv(JAVA_HOME) : getPropertyFromSetting(jdk);
+  }
+
+  @FunctionalInterface
+  private interface JdkAttempt {
+    void run(String jdkPath) throws Exception;
+  }
 
-    Process process;
+  /**
+   * Runs the build on a warm daemon of the {@link GradleDaemonManager} when one is idle.
+   */
+  private void runGradleBuild(RepoBuild build, String jdkPath) throws IOException, InterruptedException {
+    build.started(String.join(" ", gradleCommand()), jdkPath);
+    log.info("Executing gradle build command: {} with JAVA_HOME: {}", build.commandExecuted, jdkPath);
+
+    GradleDaemonManager daemons = GradleDaemonManager.shared();
+    List<String> command = gradleCommand();
+    command.addAll(daemons.daemonArguments());
+    ProcessResult result = null;
+    GradleDaemonManager.Lease lease = daemons.acquire(build.repo, jdkPath, toolHeapMb(build.repo));
     try {
-        process = processBuilder.start();
+      result = runBuildProcess(build, jdkPath, command, Map.of());
     } catch (IOException e) {
-        throw new DepViewerException("Failed to start Gradle command. Ensure '" + command[0] + "' exists and is executable.", e);
-    }
-
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        log.info(line);
+      throw new AbortedBuildException("Failed to start Gradle command. Ensure '" + GRADLE_WRAPPER + "' exists and is executable.", e);
+    } finally {
+      // Killing the build's process tree takes a daemon it started with it
+      if (result != null && !result.isKilled()) {
+        lease.close();
+      } else {
+        lease.discard();
       }
     }
+    checkResult(build, result, "Gradle");
+  }
 
-    int exitCode = process.waitFor();
-    if (exitCode == 0) {
-      log.info("Gradle build successful for {}", repo.getName());
-    } else {
-      throw new DepViewerException(String.format("Build failed for %s", repo.getName()));
-    }
+  private List<String> gradleCommand() {
+    List<String> command = new ArrayList<>(List.of(GRADLE_COMMAND));
+    command.addAll(buildMode.getGradleArguments());
+    command.addAll(toolchainArguments());
+    return command;
   }
 
-  private void tryAntBuildWithDifferentJdks(File repo) {
-    String currentJdkPath = System.getenv(JAVA_HOME);
-    boolean buildSuccessful = false;
+  /**
+   * Lets Gradle's toolchain resolution find the configured JDKs, so a declared toolchain
+   * (languageVersion, jvmToolchain) resolves to one of them whatever JDK runs Gradle.
+   */
+  private static List<String> toolchainArguments() {
+    List<String> installations = CANDIDATE_JDKS.stream()
+        .map(BuildRepositoriesTask::resolveJdkPath)
+        .filter(path -> path != null && !path.isBlank() && new File(path).isDirectory())
+        .distinct()
+        .toList();
+    return installations.isEmpty() ? List.of()
+                                   : List.of("-Porg.gradle.java.installations.paths=" + String.join(",", installations));
+  }
 
-    for (String property : JDKS) {
-      try {
-        runAntBuild(repo, currentJdkPath);
-        buildSuccessful = true;
-        currentJavaVersionUsed = property;
-        break;
-      } catch (Exception e) {
-        if (isFatalError(e)) throw (RuntimeException) e;
-        log.error(RETRY_WITH_LOWER_VERSION, currentJdkPath);
-        currentJdkPath = getPropertyFromSetting(property);
-      }
-    }
+  /**
+   * Runs a build tool in the repository, its output going to the build's log and classifier;
+   * kills its process tree when the task is cancelled, the classifier recognises a failure, or
+   * the build exceeds {@link #BUILD_TIMEOUT_MINUTES} or prints nothing for
+   * {@link #BUILD_INACTIVITY_TIMEOUT_MINUTES}.
+   */
+  private ProcessResult runBuildProcess(RepoBuild build, String jdkPath, List<String> command, Map<String, String> env)
+      throws IOException, InterruptedException {
+    return ProcessRunner.builder()
+        .name(build.name)
+        .command(command)
+        .directory(build.repo)
+        .env(JAVA_HOME, jdkPath)
+        .environment(env)
+        .timeout(buildTimeout)
+        .inactivityTimeout(inactivityTimeout)
+        .cancelledWhen(() -> isCancelled() || build.classifier.isHopeless())
+        .lineConsumer(build::output)
+        .build()
+        .run();
+  }
 
-    if (!buildSuccessful) {
-      log.error(ALL_BUILDS_FAILED);
-      throw new DepViewerException(ALL_BUILDS_FAILED);
+  private void checkResult(RepoBuild build, ProcessResult result, String tool) {
+    if (result.isSuccess()) {
+      log.info("{} build successful for {}", tool, build.name);
+      return;
     }
-  }
-  private boolean isFatalError(Exception e) {
-      String msg = e.getMessage();
-      if (msg == null) return false;
-      return msg.contains("MAVEN_HOME") || 
-             msg.contains("command not found") || 
-             msg.contains("executable not found") || 
-             msg.contains("is not set") ||
-             msg.contains("Please ensure");
+    if (build.classifier.isHopeless()) {
+      log.error("{} build of {} stopped early, {}", tool, build.name, describeFailure(build));
+      throw new DepViewerException(describeFailure(build));
+    }
+    if (result.isKilled()) {
+      log.error("{} build of {} {}, last output:\n{}", tool, build.name, result.describeExit(), result.getTail());
+      throw new AbortedBuildException(String.format("%s build %s", tool, result.describeExit()), null);
+    }
+    log.error("{} build of {} failed ({}), last output:\n{}", tool, build.name, result.describeExit(), result.getTail());
+    throw new DepViewerException(String.format("%s build failed for %s, see %s", tool, build.name, build.logFile()));
   }
 
-  private void runAntBuild(File repo, String jdkPath) throws IOException, InterruptedException {
+  private void runAntBuild(RepoBuild build, String jdkPath) throws IOException, InterruptedException {
     String antCommand = IS_WINDOWS ? "ant.bat" : "ant";
-    currentCommandExecuted = antCommand + " -verbose";
-    ProcessBuilder processBuilder = new ProcessBuilder(antCommand, "-verbose");
-    
-    processBuilder.directory(repo);
-    processBuilder.redirectErrorStream(true);
-    if (jdkPath != null && !jdkPath.isEmpty()) {
-        processBuilder.environment().put(JAVA_HOME, jdkPath);
-    }
-    
+    build.started(antCommand + " -verbose", jdkPath);
     log.info("Executing Ant build command: {} with JAVA_HOME: {}", antCommand, jdkPath);
 
-    Process process;
+    ProcessResult result;
     try {
-        process = processBuilder.start();
+      result = runBuildProcess(build, jdkPath, List.of(antCommand, "-verbose"), Map.of());
     } catch (IOException e) {
-        throw new DepViewerException("Failed to start Ant command. Please ensure '" + antCommand + "' is installed and in your PATH.", e);
-    }
-
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        log.info(line);
-      }
+        throw new AbortedBuildException("Failed to start Ant command. Please ensure '" + antCommand + "' is installed and in your PATH.", e);
     }
+    checkResult(build, result, "Ant");
+  }
 
-    int exitCode = process.waitFor();
-    if (exitCode == 0) {
-      log.info("Ant build successful for {}", repo.getName());
-    } else {
-      throw new DepViewerException(String.format("Ant build failed for %s", repo.getName()));
-    }
+  private static boolean isGradleBuild(File repo) {
+    return new File(repo, "build.gradle").exists() || new File(repo, "build.gradle.kts").exists();
   }
 
-  private void runMavenBuild(File repo, String jdkPath) {
+  private void runMavenBuild(RepoBuild build, String jdkPath) throws InterruptedException {
+    String goals = mavenGoals(build);
     try {
-      currentCommandExecuted = "mvn clean package";
-      getMavenInvokerResult(repo.getAbsolutePath(), "", "clean package", MAVEN_OPTS, jdkPath);
-    } catch (Exception e) {
-      log.error("Building repository failed, retry with new file permissions", e);
-      changeDirectoryPermissions(repo);
-      currentCommandExecuted = "mvn package";
-      getMavenInvokerResult(repo.getAbsolutePath(), "", "package", MAVEN_OPTS, jdkPath);
+      runMaven(build, jdkPath, "clean " + goals);
+    } catch (DepViewerException e) {
+      if (e instanceof AbortedBuildException || build.classifier.getCause() != null) throw e;
+      PermissionRepair.Report repair = PermissionRepair.repair(build.repo.toPath());
+      if (repair.getChanged() == 0) throw e;
+      log.error("Building repository failed, retry with repaired file permissions", e);
+      build.output("==== Repaired file permissions: " + repair.summary());
+      runMaven(build, jdkPath, goals);
     }
   }
 
-  public static void changeDirectoryPermissions(File directory) {
+  private void runMaven(RepoBuild build, String jdkPath, String goals) throws InterruptedException {
+    build.started("mvn " + goals, jdkPath);
+    log.info("Executing Maven build command: {} with JAVA_HOME: {}", build.commandExecuted, jdkPath);
+    ProcessResult result;
     try {
-      // Set read and write permissions for owner, group, and others
-      Set<PosixFilePermission> perms = new HashSet<>();
-      perms.add(PosixFilePermission.OWNER_READ);
-      perms.add(PosixFilePermission.OWNER_WRITE);
-      perms.add(PosixFilePermission.OWNER_EXECUTE);
-      perms.add(PosixFilePermission.GROUP_READ);
-      perms.add(PosixFilePermission.GROUP_WRITE);
-      perms.add(PosixFilePermission.GROUP_EXECUTE);
-      perms.add(PosixFilePermission.OTHERS_READ);
-      perms.add(PosixFilePermission.OTHERS_WRITE);
-      perms.add(PosixFilePermission.OTHERS_EXECUTE);
-
-      // Convert permissions to file attributes
-      Path path = Paths.get(directory.getAbsolutePath());
-      Files.setPosixFilePermissions(path, perms);
-
-      log.debug("Permissions changed successfully for directory: {}", directory.getAbsolutePath());
-
-      // Recursively apply permissions to all files and directories
-      if (directory.isDirectory()) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-          for (File file : files) {
-            changeDirectoryPermissions(file);
-          }
-        }
-      }
-    } catch (Exception e) {
-      log.warn("Failed to change permissions for {}: {}", directory.getAbsolutePath(), e.getMessage());
+      result = runBuildProcess(build, jdkPath, getMavenCommandLine(goals), Map.of("MAVEN_OPTS", MAVEN_OPTS));
+    } catch (IOException | DepViewerException e) {
+      throw new AbortedBuildException("Failed to start Maven: " + e.getMessage(), e);
     }
+    checkResult(build, result, "Maven");
+  }
+
+  /**
+   * The phase and the arguments of the build mode, without clean.
+   */
+  private String mavenGoals(RepoBuild build) {
+    List<String> goals = new ArrayList<>(List.of(build.install ? "install" : "package"));
+    goals.addAll(buildMode.getMavenArguments());
+    return String.join(" ", goals);
   }
 
   private String formatJavaVersion(String versionKey) {
@@ -396,4 +615,95 @@ public class BuildRepositoriesTask extends Task<Map<String, String>> {
         default -> versionKey;
     };
   }
+
+  /**
+   * State of one repository build, touched only by the thread running it and read for the status
+   * line.
+   */
+  private class RepoBuild {
+
+    final File repo;
+    final String name;
+    /**
+     * Other repositories of the plan depend on this one, so Maven installs instead of packaging.
+     */
+    final boolean install;
+    final String revision;
+    /**
+     * Repositories of the plan this one depends on.
+     */
+    Set<File> upstream = Set.of();
+    volatile String javaVersionUsed;
+    volatile String commandExecuted;
+    volatile String jdkPath;
+    /**
+     * Classifies the output of the current attempt.
+     */
+    volatile FailureClassifier classifier = new FailureClassifier();
+    private CompressedLog buildLog;
+
+    RepoBuild(File repo, boolean install) {
+      this.repo = repo;
+      this.name = repo.getName();
+      this.install = install;
+      this.revision = GitDownloadService.describeHead(repo);
+    }
+
+    void started(String command, String jdkPath) {
+      this.commandExecuted = command;
+      this.jdkPath = jdkPath;
+      this.classifier = new FailureClassifier();
+      output("==== " + command + " with JAVA_HOME=" + jdkPath);
+      publishStatus();
+    }
+
+    void output(String line) {
+      log.debug("[{}] {}", name, line);
+      classifier.accept(line);
+      CompressedLog current = buildLog;
+      if (current != null) current.accept(line);
+    }
+
+    Path logFile() {
+      return getAppDataPath(Paths.get(BUILD_LOGS_DIR, projectName).toString()).resolve(name + ".log.gz");
+    }
+
+    void openLog() {
+      try {
+        buildLog = new CompressedLog(logFile());
+      } catch (IOException | RuntimeException e) {
+        log.warn("Could not create the build log of {}: {}", name, e.getMessage());
+      }
+    }
+
+    void closeLog() {
+      if (buildLog != null) buildLog.close();
+      buildLog = null;
+    }
+
+    /**
+     * Fingerprints the inputs of building with the JDK, or returns null when they cannot be
+     * pinned down, e.g. with local changes or an upstream repository that did not build.
+     */
+    String fingerprint(String jdkPath) {
+      if (jdkPath == null) return null;
+      List<String> upstreamFingerprints = upstream.stream().map(fingerprints::get).toList();
+      return BuildResultLedger.fingerprint(repo, plannedCommand(), jdkPath, upstreamFingerprints);
+    }
+
+    /**
+     * The command a build of the repository starts with, independent of retries.
+     */
+    String plannedCommand() {
+      if (isGradleBuild(repo)) return String.join(" ", gradleCommand());
+      if (new File(repo, "pom.xml").exists()) return "mvn clean " + mavenGoals(this);
+      return "ant -verbose";
+    }
+
+    String describe() {
+      if (commandExecuted == null) return name;
+      String jdk = jdkPath == null ? "" : ", " + Paths.get(jdkPath).getFileName();
+      return name + " (" + commandExecuted + jdk + ")";
+    }
+  }
 }
@@ -1,21 +1,24 @@
 package com.botsteve.mavendepsearcher.tasks;
 
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.originUrl;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.Comparator;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
-import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevWalk;
 import com.botsteve.mavendepsearcher.exception.DepViewerException;
+import com.botsteve.mavendepsearcher.service.TagResolver;
 
 @Slf4j
 public class CheckoutTagsTask {
@@ -24,10 +27,11 @@ public class CheckoutTagsTask {
 
   public static String checkoutTag(File file, String version) throws GitAPIException, IOException {
     try (Git git = Git.open(file)) {
-      List<Ref> filteredSortedTags = git.tagList().call().stream()
-                                         .filter(tag -> isMatchingVersionTag(version, tag)) // Starts with version
-                                         .sorted(new TagComparator(git))
-                                         .toList();
+      Repository repository = git.getRepository();
+      String uri = originUrl(repository);
+      List<Ref> matchingTags = TagResolver.matchingTags(uri, version,
+                                                        repository.getRefDatabase().getRefsByPrefix(Constants.R_TAGS));
+      List<Ref> filteredSortedTags = sortNewestFirst(repository, matchingTags);
 
       log.debug("Available tags: {}", filteredSortedTags.stream()
                                          .map(Ref::getName)
@@ -36,6 +40,7 @@ public class CheckoutTagsTask {
       if (!filteredSortedTags.isEmpty()) {
         Ref tagToCheckout = filteredSortedTags.getFirst();
         checkoutTag(git, tagToCheckout);
+        TagResolver.learn(uri, version, tagToCheckout.getName());
         return tagToCheckout.getName();
       } else {
         var depViewerException = new DepViewerException(String.format(NO_TAG_FOUND, file.getName(), version));
@@ -45,50 +50,31 @@ public class CheckoutTagsTask {
     }
   }
 
-  private static boolean isMatchingVersionTag(String version, Ref tag) {
-    var strippedTag = tag.getName().replace("refs/tags/", "").toLowerCase();
-    var normalized = normalizeVersion(strippedTag);
-    log.debug("Original tag: {} vs Normalized tag: {}", tag.getName(), normalized);
-    return normalized.startsWith(version.toLowerCase());
-  }
-
-  static class TagComparator implements Comparator<Ref> {
-
-    private final Git git;
-
-    public TagComparator(Git git) {
-      this.git = git;
-    }
-
-    @Override
-    public int compare(Ref tag1, Ref tag2) {
-      try {
-        Date date1 = getTagDate(tag1);
-        Date date2 = getTagDate(tag2);
-        return date2.compareTo(date1);
-      } catch (IOException e) {
-        throw new RuntimeException("Failed to compare tags", e);
-      }
-    }
-
-    private Date getTagDate(Ref tag) throws IOException {
-      try (RevWalk walk = new RevWalk(git.getRepository())) {
-        ObjectId objectId = resolveObjectId(tag);
-        RevCommit commit = walk.parseCommit(objectId);
-        return commit.getCommitterIdent().getWhen();
+  /**
+   * Orders tags by commit time, newest first. All tags are resolved in one shared RevWalk, which
+   * parses each commit once, and the times are memoised before sorting, so the sort itself does
+   * no I/O.
+   */
+  static List<Ref> sortNewestFirst(Repository repository, List<Ref> tags) throws IOException {
+    Map<String, Integer> commitTimes = new HashMap<>();
+    try (RevWalk walk = new RevWalk(repository)) {
+      for (Ref tag : tags) {
+        commitTimes.put(tag.getName(), walk.parseCommit(peeledObjectId(tag)).getCommitTime());
       }
     }
-
-    private ObjectId resolveObjectId(Ref tag) {
-      // Handle annotated tags
-      if (tag.getPeeledObjectId() != null) {
-        return tag.getPeeledObjectId();
-      }
-      // Handle lightweight tags
-      return tag.getObjectId();
-    }
+    return tags.stream()
+        .sorted(Comparator.comparing((Ref tag) -> commitTimes.get(tag.getName())).reversed()
+                    .thenComparing(Ref::getName))
+        .toList();
   }
 
+  /**
+   * The commit an annotated tag points to when the ref is already peeled (as in a ref
+   * advertisement), otherwise the ref's own id; RevWalk peels annotated tag objects itself.
+   */
+  public static ObjectId peeledObjectId(Ref tag) {
+    return tag.getPeeledObjectId() != null ? tag.getPeeledObjectId() : tag.getObjectId();
+  }
 
   static void checkoutTag(Git git, Ref tag) throws GitAPIException {
     git.checkout()
@@ -96,21 +82,4 @@ public class CheckoutTagsTask {
         .call();
     log.debug("Checked out repo {} with tag: {}", git.getRepository().getDirectory().getName(), tag.getName());
   }
-
-  public static String normalizeVersion(String version) {
-    // Define the pattern to match version numbers in the format "X.Y.Z" followed by any suffix
-    Pattern pattern = Pattern.compile("(\\d+\\.\\d+\\.\\d+.*)");
-
-    // Create a matcher for the input version string
-    Matcher matcher = pattern.matcher(version);
-
-    // Search for the pattern in the input string
-    if (matcher.find()) {
-      // Return the matched version part, including any suffixes
-      return matcher.group(1);
-    } else {
-      // If no match, return the original version
-      return version;
-    }
-  }
 }
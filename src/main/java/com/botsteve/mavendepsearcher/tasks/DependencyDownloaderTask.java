@@ -1,19 +1,32 @@
 package com.botsteve.mavendepsearcher.tasks;
 
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.fetchTags;
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.hasMatchingLocalTag;
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.listMatchingTags;
+import static com.botsteve.mavendepsearcher.service.GitDownloadService.removeStaleLocks;
 import static com.botsteve.mavendepsearcher.tasks.CheckoutTagsTask.checkoutTag;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.getErrorAlertAndCloseProgressBar;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.showAlert;
 import static com.botsteve.mavendepsearcher.utils.FxUtils.updateProgressBarAndLabel;
 import static com.botsteve.mavendepsearcher.utils.ProxyUtil.configureProxyIfEnvAvailable;
 import static com.botsteve.mavendepsearcher.utils.ProxyUtil.getRepoNameFromUrl;
+import static com.botsteve.mavendepsearcher.utils.Utils.concatenateRepoNames;
 import static com.botsteve.mavendepsearcher.utils.Utils.getRepositoriesPath;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -22,7 +35,19 @@ import javafx.scene.control.ProgressBar;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.model.DownloadJournalEntry;
+import com.botsteve.mavendepsearcher.model.DownloadState;
+import com.botsteve.mavendepsearcher.model.RepositoryId;
+import com.botsteve.mavendepsearcher.service.DownloadJournal;
+import com.botsteve.mavendepsearcher.service.DownloadProgress;
+import com.botsteve.mavendepsearcher.service.DownloadScheduler;
+import com.botsteve.mavendepsearcher.service.GitMirrorStore;
+import com.botsteve.mavendepsearcher.service.SourcesJarService;
 import com.botsteve.mavendepsearcher.utils.ForceDeleteUtil;
 
 @Slf4j
@@ -34,7 +59,13 @@ public class DependencyDownloaderTask extends Task<Map<String, String>> {
   private final Label progressLabel;
   private final boolean cleanUp;
   private final String projectName;
-  private final java.util.concurrent.ConcurrentHashMap<String, String> repoToCheckoutTag = new java.util.concurrent.ConcurrentHashMap<>();
+  private final Set<DependencyNode> selectedDependencies;
+  private final boolean sourcesOnly;
+  private final Map<String, String> repoToCheckoutTag = new ConcurrentHashMap<>();
+  private final Set<String> failedRepos = new TreeSet<>();
+  private String throughput;
+  private volatile DownloadProgress progress;
+  private volatile DownloadJournal journal;
 
 
   @Override
@@ -49,85 +80,300 @@ public class DependencyDownloaderTask extends Task<Map<String, String>> {
 
   @Override
   protected void succeeded() {
-    showAlert("Dependencies downloaded task finished!");
+    String summary = progress != null ? progress.summaryTable() : "";
+    if (failedRepos.isEmpty()) {
+      showAlert("Dependencies downloaded task finished!\n" + throughput, summary);
+    } else {
+      showAlert(concatenateRepoNames("Downloaded " + throughput + ". Failed to download:", failedRepos), summary);
+    }
     progressBar.setVisible(false);
     progressLabel.setVisible(false);
   }
 
   @Override
-  protected Map<String, String> call() {
+  protected Map<String, String> call() throws Exception {
+    journal = DownloadJournal.open(projectName);
     updateProgressBarAndLabel("Cleaning up previous downloaded repositories", progressBar, progressLabel);
     if (cleanUp) {
+        // After an interrupted run the selection's checkouts are kept and resumed instead of wiped
+        Set<String> keep = journal.isInterrupted() ? journaledRepoNames() : Set.of();
+        if (!keep.isEmpty()) {
+            log.info("Previous download was interrupted, resuming {} repositories instead of cleaning them up", keep.size());
+        }
         try {
-            cleanUpDownloadedDependencies();
+            cleanUpDownloadedDependencies(keep);
         } catch (Exception e) {
             log.error("Cleanup failed", e);
             throw new RuntimeException("Failed to clean up repositories", e);
         }
     }
-    
-    scmToVersionRepos.entrySet().parallelStream().forEach(versionScm -> {
-      try {
-          Platform.runLater(() -> progressLabel.setText("Downloading: " + getRepoNameFromUrl(versionScm.getKey())));
-          
-          File localRepoDir = new File(getRepositoriesPath(projectName), getRepoNameFromUrl(versionScm.getKey()));
-          configureProxyIfEnvAvailable();
-          
-          boolean repoReady = false;
-          if (!cleanUp && localRepoDir.exists() && new File(localRepoDir, ".git").exists()) {
-               try (Git git = Git.open(localRepoDir)) {
-                    log.info("Updating existing repository: {}", versionScm.getKey());
-                    git.fetch().setTagOpt(TagOpt.FETCH_TAGS).call();
-                    repoReady = true;
-               } catch (Exception e) {
-                    log.warn("Failed to reuse repository {}: {}", localRepoDir, e.getMessage());
-                    try {
-                        ForceDeleteUtil.forceDeleteDirectory(localRepoDir.toPath());
-                    } catch (IOException ex) {
-                        throw new RuntimeException("Failed to clear directory for clone", ex);
-                    }
-               }
-          } else if (localRepoDir.exists()) {
-               try {
-                   ForceDeleteUtil.forceDeleteDirectory(localRepoDir.toPath());
-               } catch (IOException e) {
-                   throw new RuntimeException("Failed to clear directory for clone", e);
-               }
-          }
 
-          if (!repoReady) {
-               try (Git git = Git.cloneRepository()
-                         .setURI(versionScm.getKey())
-                         .setDirectory(localRepoDir)
-                         .setCloneAllBranches(true)
-                         .setDepth(1)
-                         .call()) {
-                   log.info("Repository cloned successfully: {}", versionScm.getKey());
-               }
+    Map<String, String> pending = new LinkedHashMap<>();
+    Map<String, RepositoryId> directoryOwners = new HashMap<>();
+    scmToVersionRepos.forEach((uri, version) -> {
+      // Distinct repositories with the same name would share, and race on, one directory
+      RepositoryId id = RepositoryId.parse(uri);
+      RepositoryId owner = directoryOwners.putIfAbsent(getRepoNameFromUrl(uri), id);
+      if (owner != null && !owner.equals(id)) {
+        log.warn("Skipping {}: its directory {} is already used by {}", uri, getRepoNameFromUrl(uri), owner);
+        failedRepos.add(id.getKey());
+        return;
+      }
+      String tag = completedTag(uri, version);
+      if (tag != null) {
+        repoToCheckoutTag.put(getRepoNameFromUrl(uri), tag);
+      } else {
+        pending.put(uri, version);
+      }
+    });
+    if (pending.size() < scmToVersionRepos.size()) {
+      log.info("{} repositories are already checked out, downloading the remaining {}",
+               scmToVersionRepos.size() - pending.size(), pending.size());
+    }
+    journal.queue(pending);
+
+    configureProxyIfEnvAvailable();
+    progress = new DownloadProgress(pending.size(), this::repositorySize, this::isCancelled,
+                                    (fraction, status) -> {
+                                      updateProgress(fraction, 1);
+                                      Platform.runLater(() -> progressLabel.setText(status));
+                                    });
+    var scheduler = DownloadScheduler.fromSettings(this::repositorySize);
+    progress.start();
+    DownloadScheduler.Report<String> report;
+    try {
+      report = scheduler.run(pending.keySet(), this::downloadRepository, new DownloadScheduler.Listener<>() {
+        @Override
+        public void started(String uri, int attempt) {
+          progress.started(uri, attempt);
+        }
+
+        @Override
+        public void finished(DownloadScheduler.Outcome<String> outcome, int completed, int total) {
+          progress.finished(outcome.getUri(), outcome.isSuccess());
+        }
+      }, this::isCancelled);
+    } finally {
+      progress.stop();
+    }
+    log.info("Download summary:\n{}", progress.summaryTable());
+
+    report.getOutcomes().stream()
+        .filter(DownloadScheduler.Outcome::isSuccess)
+        .forEach(outcome -> repoToCheckoutTag.put(getRepoNameFromUrl(outcome.getUri()), outcome.getResult()));
+    report.getFailed().forEach(outcome -> failedRepos.add(getRepoNameFromUrl(outcome.getUri())));
+    throughput = report.describeThroughput();
+    return repoToCheckoutTag;
+  }
+
+  /**
+   * Downloads one repository and checks out the tag matching its version, returning the tag name.
+   * Every step is recorded in the journal; a failure keeps the step reached for the next run.
+   */
+  private String downloadRepository(String uri) throws Exception {
+    String version = scmToVersionRepos.get(uri);
+    File localRepoDir = new File(getRepositoriesPath(projectName), getRepoNameFromUrl(uri));
+    DownloadJournalEntry previous = journal.get(uri);
+    boolean interrupted = previous != null && version.equals(previous.getVersion())
+        && (previous.getState() == DownloadState.CLONING || previous.getState() == DownloadState.FETCHED);
+
+    try {
+      if (sourcesOnly && !new File(localRepoDir, ".git").exists()) {
+        String sourcesTag = extractSources(uri, version, localRepoDir);
+        if (sourcesTag != null) {
+          journal.update(uri, version, DownloadState.CHECKED_OUT, sourcesTag);
+          return sourcesTag;
+        }
+        log.info("Sources jars of {} {} are not all available, falling back to Git", uri, version);
+      }
+
+      boolean repoReady = false;
+      if (localRepoDir.exists() && new File(localRepoDir, ".git").exists()) {
+        repoReady = reuseExistingCheckout(uri, localRepoDir, version, interrupted);
+      }
+      if (!repoReady && localRepoDir.exists()) {
+        clearDirectory(localRepoDir);
+      }
+
+      journal.update(uri, version, DownloadState.CLONING, null);
+      if (!repoReady) {
+        repoReady = checkoutFromMirror(uri, localRepoDir, version);
+      }
+
+      if (!repoReady) {
+        try (Git git = Git.cloneRepository()
+            .setURI(uri)
+            .setDirectory(localRepoDir)
+            .setCloneAllBranches(true)
+            .setDepth(1)
+            .setProgressMonitor(progress.monitor(uri))
+            .call()) {
+          log.info("Repository cloned successfully: {}", uri);
+        }
+      }
+      journal.update(uri, version, DownloadState.FETCHED, null);
+
+      String tag = checkoutTag(localRepoDir, version).replace("refs/tags/", "");
+      journal.update(uri, version, DownloadState.CHECKED_OUT, tag);
+      return tag;
+    } catch (Exception e) {
+      journal.failed(uri, e.getMessage());
+      throw e;
+    }
+  }
+
+  /**
+   * Fills localRepoDir with the sources jars of the selected artifacts of the repository at this
+   * version, one directory per artifact. Returns null, leaving the directory untouched, unless
+   * every artifact has a sources jar.
+   */
+  private String extractSources(String uri, String version, File localRepoDir) throws Exception {
+    RepositoryId id = RepositoryId.parse(uri);
+    Map<String, DependencyNode> artifacts = new LinkedHashMap<>();
+    selectedDependencies.stream()
+        .filter(node -> id.equals(RepositoryId.parse(node.getScmUrl())) && version.equals(node.getVersion()))
+        .forEach(node -> artifacts.putIfAbsent(node.getGroupId() + ":" + node.getArtifactId(), node));
+    if (artifacts.isEmpty()) return null;
+
+    Map<DependencyNode, Path> jars = new LinkedHashMap<>();
+    for (DependencyNode artifact : artifacts.values()) {
+      Path jar = SourcesJarService.findSourcesJar(artifact);
+      if (jar == null) return null;
+      jars.put(artifact, jar);
+    }
+
+    if (localRepoDir.exists()) {
+      clearDirectory(localRepoDir);
+    }
+    for (Map.Entry<DependencyNode, Path> jar : jars.entrySet()) {
+      SourcesJarService.extract(jar.getValue(), localRepoDir.toPath().resolve(jar.getKey().getArtifactId()));
+    }
+    Files.writeString(localRepoDir.toPath().resolve(SourcesJarService.SOURCES_ONLY_MARKER),
+                      String.join("\n", artifacts.keySet()) + "\n");
+    log.info("Extracted {} sources jar(s) of {} {}", jars.size(), uri, version);
+    return version + " (sources jar)";
+  }
+
+  /**
+   * Reuses a checkout that already has a tag for the version. When the journal shows the previous
+   * run stopped half-way, stale locks are removed and the working tree is reset instead of
+   * deleting the directory, and a full clone missing the tag resumes with a fetch of just that tag.
+   */
+  private boolean reuseExistingCheckout(String uri, File localRepoDir, String version, boolean interrupted) {
+    try {
+      if (interrupted) {
+        log.info("Repairing interrupted download of {}", uri);
+        removeStaleLocks(localRepoDir.toPath().resolve(".git"));
+      }
+      try (Git git = Git.open(localRepoDir)) {
+        if (hasMatchingLocalTag(git, version)) {
+          if (interrupted && git.getRepository().resolve(Constants.HEAD) != null) {
+            git.reset().setMode(ResetCommand.ResetType.HARD).call();
           }
-          
-          var checkoutTagStr = checkoutTag(localRepoDir, versionScm.getValue());
-          repoToCheckoutTag.put(getRepoNameFromUrl(versionScm.getKey()), checkoutTagStr.replace("refs/tags/", ""));
+          log.info("Reusing existing checkout of {}", uri);
+          return true;
+        }
+        boolean borrowsObjects = Files.exists(git.getRepository().getDirectory().toPath().resolve("objects/info/alternates"));
+        if (interrupted && !borrowsObjects) {
+          List<Ref> tags = listMatchingTags(uri, version);
+          if (!tags.isEmpty()) {
+            fetchTags(git, tags, progress.monitor(uri));
+            log.info("Resumed download of {} in the existing clone", uri);
+            return true;
+          }
+        }
+      }
+    } catch (Exception e) {
+      log.warn("Failed to reuse repository {}: {}", localRepoDir, e.getMessage());
+    }
+    return false;
+  }
+
+  /**
+   * Returns the tag of a repository the journal records as checked out at this version, if the
+   * checkout is still there with HEAD on that tag; null when it has to be downloaded.
+   */
+  private String completedTag(String uri, String version) {
+    if (!journal.isCheckedOut(uri, version)) return null;
+    String tag = journal.get(uri).getTag();
+    File localRepoDir = new File(getRepositoriesPath(projectName), getRepoNameFromUrl(uri));
+    if (tag == null || !new File(localRepoDir, ".git").exists()) return null;
+    try (Git git = Git.open(localRepoDir)) {
+      ObjectId head = git.getRepository().resolve(Constants.HEAD);
+      ObjectId tagCommit = git.getRepository().resolve(Constants.R_TAGS + tag + "^{commit}");
+      return head != null && head.equals(tagCommit) ? tag : null;
+    } catch (Exception e) {
+      return null;
+    }
+  }
 
-      } catch (Exception e) {
-        log.error("Failed to clone/checkout repository: {}", versionScm.getKey(), e);
-        throw new RuntimeException("Failed to clone " + versionScm.getKey(), e);
+  private Set<String> journaledRepoNames() {
+    Set<String> names = new HashSet<>();
+    scmToVersionRepos.forEach((uri, version) -> {
+      DownloadJournalEntry entry = journal.get(uri);
+      if (entry != null && version.equals(entry.getVersion())) {
+        names.add(getRepoNameFromUrl(uri));
       }
     });
+    return names;
+  }
 
-    return repoToCheckoutTag;
+  /**
+   * Bytes the repository takes on disk: its mirror plus the checkout's own git directory.
+   */
+  private long repositorySize(String uri) {
+    File localRepoDir = new File(getRepositoriesPath(projectName), getRepoNameFromUrl(uri));
+    return directorySize(GitMirrorStore.getMirrorDir(uri)) + directorySize(localRepoDir.toPath().resolve(".git"));
+  }
+
+  private static long directorySize(Path directory) {
+    if (!Files.isDirectory(directory)) return 0;
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+    } catch (IOException | UncheckedIOException e) {
+      return 0;
+    }
+  }
+
+  /**
+   * Checks the repository out from the shared mirror store, which fetches only the tags matching
+   * the version. Returns false when no remote tag matches or the mirror cannot be used, in which
+   * case the caller falls back to a full shallow clone.
+   */
+  private boolean checkoutFromMirror(String uri, File localRepoDir, String version) {
+    try {
+      if (GitMirrorStore.checkout(uri, version, localRepoDir, progress.monitor(uri))) {
+        return true;
+      }
+      log.info("No remote tag of {} matches {}, falling back to a full clone", uri, version);
+    } catch (Exception e) {
+      log.warn("Mirror checkout of {} failed, falling back to a full clone: {}", uri, e.getMessage());
+    }
+    if (localRepoDir.exists()) {
+      clearDirectory(localRepoDir);
+    }
+    return false;
+  }
+
+  private static void clearDirectory(File directory) {
+    try {
+      ForceDeleteUtil.moveToTrash(directory.toPath());
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to clear directory for clone", e);
+    }
   }
 
-  private void cleanUpDownloadedDependencies() throws IOException {
+  private void cleanUpDownloadedDependencies(Set<String> keep) throws IOException {
     Path dir = Paths.get(getRepositoriesPath(projectName));
     if (!Files.exists(dir)) return;
 
     try (Stream<Path> paths = Files.list(dir)) {
       paths.filter(Files::isDirectory)
+          .filter(path -> !keep.contains(path.getFileName().toString()))
           .forEach(path -> {
             try {
-              ForceDeleteUtil.forceDeleteDirectory(path);
-              log.debug("Deleted directory: {}", path);
+              ForceDeleteUtil.moveToTrash(path);
+              log.debug("Moved directory to trash: {}", path);
             } catch (IOException e) {
               log.error("Failed to delete directory: {}", path, e);
               throw new RuntimeException(
@@ -9,7 +9,9 @@ import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TreeItem;
 import javafx.scene.control.TreeTableView;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.DependencyAnalysis;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
 import com.botsteve.mavendepsearcher.model.ProjectType;
 import com.botsteve.mavendepsearcher.service.DependencyAnalyzerService;
@@ -23,25 +25,49 @@ public class DependencyLoadingTask extends Task<Set<DependencyNode>> {
   private final ProgressBar progressBar;
   private final Label progressLabel;
   private final TreeTableView<DependencyNode> treeTableView;
+  /**
+   * Background re-run after a fast-path load: always executes the build tool and leaves the
+   * progress bar and tree alone, the caller merges the refined result.
+   */
+  private final boolean refinement;
+  @Getter
+  private volatile boolean loadedFromLockfiles;
+  /**
+   * Gradle time saved by answering from the analysis cache, 0 when the build tool ran.
+   */
+  @Getter
+  private volatile long cacheSavedMillis;
 
   public DependencyLoadingTask(String projectDir, ProgressBar progressBar, Label progressLabel,
                                TreeTableView<DependencyNode> treeTableView) {
+    this(projectDir, progressBar, progressLabel, treeTableView, false);
+  }
+
+  public DependencyLoadingTask(String projectDir, ProgressBar progressBar, Label progressLabel,
+                               TreeTableView<DependencyNode> treeTableView, boolean refinement) {
     this.projectDir = projectDir;
     this.progressBar = progressBar;
     this.progressLabel = progressLabel;
     this.treeTableView = treeTableView;
+    this.refinement = refinement;
   }
 
   @Override
   protected Set<DependencyNode> call() throws Exception {
-    Platform.runLater(() -> progressLabel.setText("Loading dependencies..."));
-    var dependencies = DependencyAnalyzerService.getDependencies(projectDir);
+    if (!refinement) {
+      Platform.runLater(() -> progressLabel.setText("Loading dependencies..."));
+    }
+    DependencyAnalysis analysis = DependencyAnalyzerService.analyze(projectDir, !refinement);
+    var dependencies = analysis.getDependencies();
+    loadedFromLockfiles = analysis.getSource() == DependencyAnalysis.Source.LOCKFILES;
+    cacheSavedMillis = analysis.getCacheSavedMillis();
 
-    Platform.runLater(() -> progressLabel.setText("Fetching and Enriching SCM URLs..."));
-    ProjectType projectType = DependencyAnalyzerService.getProjectType(projectDir);
+    if (!refinement) {
+      Platform.runLater(() -> progressLabel.setText("Fetching and Enriching SCM URLs..."));
+    }
     
     // 1. Initial tool-based scan (Maven/Gradle plugins)
-    if (projectType == ProjectType.MAVEN) {
+    if (analysis.getSource() == DependencyAnalysis.Source.MAVEN) {
       ScmUrlFetcherService.fetchScmUrls(projectDir, dependencies);
     } 
     
@@ -54,6 +80,9 @@ public class DependencyLoadingTask extends Task<Set<DependencyNode>> {
 
   @Override
   protected void succeeded() {
+    if (refinement) {
+      return;
+    }
     Set<DependencyNode> dependencies = getValue();
     TreeItem<DependencyNode> rootItem = new TreeItem<>(new DependencyNode("Root", "", ""));
     for (DependencyNode node : dependencies) {
@@ -68,6 +97,10 @@ public class DependencyLoadingTask extends Task<Set<DependencyNode>> {
   protected void failed() {
     super.failed();
     Throwable exception = getException();
+    if (exception != null && refinement) {
+      log.warn("Background refinement of lockfile dependencies failed, keeping lockfile result", exception);
+      return;
+    }
     if (exception != null) {
       log.error(exception.getMessage(), exception);
       ProjectType projectType = DependencyAnalyzerService.getProjectType(projectDir);
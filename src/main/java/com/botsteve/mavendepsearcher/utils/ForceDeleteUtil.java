@@ -1,14 +1,25 @@
 package com.botsteve.mavendepsearcher.utils;
 
+import com.botsteve.mavendepsearcher.process.ProcessResult;
+import com.botsteve.mavendepsearcher.process.ProcessRunner;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 @Slf4j
 public class ForceDeleteUtil {
@@ -17,6 +28,103 @@ public class ForceDeleteUtil {
     private static final boolean IS_POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
     private static final int MAX_ATTEMPTS = 5;
     private static final long RETRY_DELAY_MS = 100;
+    private static final String TRASH_DIR = "trash";
+
+    /**
+     * Deletes trashed directories in the background; its worker threads are daemons, so pending
+     * deletions never keep the application alive and are picked up again on the next start.
+     */
+    private static final ForkJoinPool REAPER = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("trash-reaper-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            },
+            null, true);
+    private static final AtomicBoolean LEFTOVERS_SCHEDULED = new AtomicBoolean();
+
+    /**
+     * Atomically renames the directory into the trash area under app_data and returns at once;
+     * the trashed tree is deleted in parallel in the background. Falls back to a synchronous
+     * delete when the rename is not possible, e.g. across file systems or with files locked on
+     * Windows.
+     */
+    public static void moveToTrash(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        Path trash = Utils.getAppDataPath(TRASH_DIR);
+        scheduleLeftovers(trash);
+
+        Path target = trash.resolve(directory.getFileName() + "-" + UUID.randomUUID());
+        try {
+            Files.move(directory, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.debug("Could not move {} to trash, deleting in place: {}", directory, e.getMessage());
+            forceDeleteDirectory(directory);
+            return;
+        }
+        log.debug("Moved {} to {}", directory, target);
+        reap(target);
+    }
+
+    /**
+     * Deletes what earlier runs left in the trash, once per process.
+     */
+    private static void scheduleLeftovers(Path trash) throws IOException {
+        if (!LEFTOVERS_SCHEDULED.compareAndSet(false, true)) {
+            return;
+        }
+        try (Stream<Path> leftovers = Files.list(trash)) {
+            leftovers.forEach(ForceDeleteUtil::reap);
+        }
+    }
+
+    private static void reap(Path trashed) {
+        REAPER.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                new DeleteTree(trashed).invoke();
+                log.debug("Reaped {} in {} ms", trashed, System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.warn("Could not delete trashed {}: {}", trashed, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Deletes a directory tree, forking one task per subdirectory.
+     */
+    private static class DeleteTree extends RecursiveAction {
+
+        private final Path directory;
+
+        DeleteTree(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                List<DeleteTree> subtrees = new ArrayList<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                    for (Path child : children) {
+                        if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                            subtrees.add(new DeleteTree(child));
+                        } else {
+                            forceDeleteFileWithRetry(child);
+                        }
+                    }
+                }
+                invokeAll(subtrees);
+                forceDeleteFileWithRetry(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 
     public static void forceDeleteDirectory(Path directory) throws IOException {
         if (!Files.exists(directory)) {
@@ -101,15 +209,18 @@ public class ForceDeleteUtil {
     }
 
     private static void externalProcessDelete(Path path) throws IOException, InterruptedException {
-        ProcessBuilder pb;
-        if (IS_WINDOWS) {
-            pb = new ProcessBuilder("cmd.exe", "/c", "del", "/f", "/q", path.toString());
-        } else {
-            pb = new ProcessBuilder("rm", "-f", path.toString());
-        }
-        Process process = pb.start();
-        if (!process.waitFor(5, TimeUnit.SECONDS) || process.exitValue() != 0) {
-            throw new IOException("External process failed to delete: " + path);
+        List<String> command = IS_WINDOWS
+                ? List.of("cmd.exe", "/c", "del", "/f", "/q", path.toString())
+                : List.of("rm", "-f", path.toString());
+        ProcessResult result = ProcessRunner.builder()
+                .name("delete")
+                .command(command)
+                .timeout(Duration.ofSeconds(5))
+                .tailLines(20)
+                .build()
+                .run();
+        if (!result.isSuccess()) {
+            throw new IOException("External process failed to delete: " + path + " (" + result.describeExit() + ")");
         }
     }
 }
\ No newline at end of file
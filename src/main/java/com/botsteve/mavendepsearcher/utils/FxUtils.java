@@ -5,6 +5,7 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextArea;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +29,29 @@ public class FxUtils {
     alert.showAndWait();
   }
 
+  /**
+   * Information alert with details, e.g. a summary table, in an expandable monospaced area.
+   */
+  public static void showAlert(String message, String details) {
+    if (details == null || details.isBlank()) {
+      showAlert(message);
+      return;
+    }
+    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+    Label label = new Label(message);
+    label.setWrapText(true);
+    TextArea detailsArea = new TextArea(details);
+    detailsArea.setEditable(false);
+    detailsArea.setStyle("-fx-font-family: monospace;");
+    detailsArea.setPrefColumnCount(100);
+    alert.getDialogPane().setContent(label);
+    alert.getDialogPane().setExpandableContent(detailsArea);
+    alert.getDialogPane().setMinHeight(Region.USE_PREF_SIZE);
+    alert.setTitle("INFO");
+    alert.setHeaderText("");
+    alert.showAndWait();
+  }
+
   public static void showError(String message) {
     Alert alert = new Alert(Alert.AlertType.ERROR);
     Label label = new Label(message);
@@ -0,0 +1,136 @@
+package com.botsteve.mavendepsearcher.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Static reader for settings.gradle / settings.gradle.kts.
+ *
+ * Only literal include statements are understood. Anything computed at configuration time
+ * (loops, file listings, variables) makes the result unknown, in which case callers have to
+ * ask Gradle itself.
+ */
+@Slf4j
+public class GradleSettingsParser {
+
+  private static final Pattern BLOCK_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+  private static final Pattern LINE_COMMENT = Pattern.compile("(?m)//.*$");
+  private static final Pattern INCLUDE_KEYWORD = Pattern.compile("\\binclude(Flat)?\\b(?!\\s*[.=])");
+  private static final Pattern STRING_LITERAL = Pattern.compile("\"([^\"$]*)\"|'([^']*)'");
+  private static final Pattern CUSTOM_PROJECT_DIR = Pattern.compile("\\.projectDir\\s*=");
+
+  public static File findSettingsFile(File projectDir) {
+    File groovy = new File(projectDir, "settings.gradle");
+    if (groovy.exists()) return groovy;
+    File kotlin = new File(projectDir, "settings.gradle.kts");
+    return kotlin.exists() ? kotlin : null;
+  }
+
+  /**
+   * Returns the paths (":a", ":a:b") of all projects included by the settings file, without the
+   * root project. Returns an empty list for single-project builds and null when the includes
+   * cannot be determined statically.
+   */
+  public static List<String> parseIncludedProjects(File projectDir) {
+    File settingsFile = findSettingsFile(projectDir);
+    if (settingsFile == null) {
+      return List.of();
+    }
+
+    String content;
+    try {
+      content = stripComments(Files.readString(settingsFile.toPath()));
+    } catch (IOException e) {
+      log.warn("Could not read {}: {}", settingsFile, e.getMessage());
+      return null;
+    }
+
+    Set<String> projects = new LinkedHashSet<>();
+    Matcher keyword = INCLUDE_KEYWORD.matcher(content);
+    while (keyword.find()) {
+      if (keyword.group(1) != null) {
+        log.info("includeFlat found in {}, project layout cannot be resolved statically", settingsFile);
+        return null;
+      }
+      String arguments = readArguments(content, keyword.end());
+      if (arguments == null || !addLiteralProjects(arguments, projects)) {
+        log.info("Non-literal include found in {}, project list cannot be resolved statically", settingsFile);
+        return null;
+      }
+    }
+    return new ArrayList<>(projects);
+  }
+
+  /**
+   * Returns true when the settings file relocates project directories, so the default
+   * ":a:b" -> "a/b" mapping does not hold.
+   */
+  public static boolean hasCustomProjectDirs(File projectDir) {
+    File settingsFile = findSettingsFile(projectDir);
+    if (settingsFile == null) return false;
+    try {
+      return CUSTOM_PROJECT_DIR.matcher(stripComments(Files.readString(settingsFile.toPath()))).find();
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Maps a project path to its default directory, e.g. ":libs:core" -> projectDir/libs/core.
+   */
+  public static File toProjectDirectory(File rootDir, String projectPath) {
+    String relative = projectPath.startsWith(":") ? projectPath.substring(1) : projectPath;
+    return relative.isEmpty() ? rootDir : new File(rootDir, relative.replace(':', File.separatorChar));
+  }
+
+  private static String stripComments(String content) {
+    return LINE_COMMENT.matcher(BLOCK_COMMENT.matcher(content).replaceAll("")).replaceAll("");
+  }
+
+  private static String readArguments(String content, int start) {
+    int index = start;
+    while (index < content.length() && content.charAt(index) == ' ') index++;
+    if (index < content.length() && content.charAt(index) == '(') {
+      int end = content.indexOf(')', index);
+      return end == -1 ? null : content.substring(index + 1, end);
+    }
+
+    // Groovy command syntax: arguments run to the end of the line, continued by trailing commas
+    StringBuilder arguments = new StringBuilder();
+    for (String line : content.substring(index).split("\n")) {
+      arguments.append(line).append('\n');
+      if (!line.trim().endsWith(",")) break;
+    }
+    return arguments.toString();
+  }
+
+  private static boolean addLiteralProjects(String arguments, Set<String> projects) {
+    Matcher literal = STRING_LITERAL.matcher(arguments);
+    boolean found = false;
+    while (literal.find()) {
+      String path = literal.group(1) != null ? literal.group(1) : literal.group(2);
+      addWithParents(path.startsWith(":") ? path : ":" + path, projects);
+      found = true;
+    }
+    String remainder = STRING_LITERAL.matcher(arguments).replaceAll("").replaceAll("[,\\s]", "");
+    return found && remainder.isEmpty();
+  }
+
+  private static void addWithParents(String path, Set<String> projects) {
+    // include ':a:b' implicitly includes ':a' as well
+    int separator = path.indexOf(':', 1);
+    while (separator != -1) {
+      projects.add(path.substring(0, separator));
+      separator = path.indexOf(':', separator + 1);
+    }
+    projects.add(path);
+  }
+}
@@ -0,0 +1,324 @@
+package com.botsteve.mavendepsearcher.utils;
+
+import static com.botsteve.mavendepsearcher.utils.Utils.getPropertyFromSetting;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.DocumentBuilderFactory;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import com.botsteve.mavendepsearcher.service.SourcesJarService;
+
+/**
+ * Reads the Java version a repository compiles for from its build files, without running the
+ * build tool.
+ *
+ * For Maven, the POM and its parents (through relativePath or the local Maven repository) are
+ * merged the way Maven inherits properties, and maven.compiler.release/source/target and the
+ * maven-compiler-plugin configuration are interpolated, for the root POM and each reactor module.
+ * For Gradle, release and source/targetCompatibility declarations are read; toolchains are
+ * resolved by Gradle itself. Versions are mapped to the
+ * lowest supported JDK (8, 11, 17, 21) able to compile them, in the "17.0" / "1.8" format of
+ * {@link JavaVersionResolver}.
+ */
+@Slf4j
+public class JavaVersionInference {
+
+  private static final int MAX_PARENT_DEPTH = 10;
+  private static final int MAX_MODULE_DEPTH = 5;
+  private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+  private static final List<String> COMPILER_PROPERTIES = List.of("maven.compiler.release", "maven.compiler.source",
+                                                                  "maven.compiler.target", "java.version");
+  private static final List<String> COMPILER_CONFIGURATION = List.of("release", "source", "target");
+  /**
+   * Source levels compiled by the JDK running Gradle. Toolchain declarations (languageVersion,
+   * jvmToolchain) are left out on purpose: Gradle resolves that JDK among the configured ones,
+   * which the build passes to it, and the one running Gradle must stay one the wrapper's version supports.
+   */
+  private static final List<Pattern> GRADLE_DECLARATIONS = List.of(
+      Pattern.compile("(?:source|target)Compatibility\\s*(?:=|\\.set\\()\\s*JavaVersion\\.VERSION_([0-9_]+)"),
+      Pattern.compile("(?:source|target)Compatibility\\s*(?:=|\\.set\\()\\s*['\"]?([0-9.]+)['\"]?"),
+      Pattern.compile("options\\.release\\s*(?:=|\\.set\\()\\s*(\\d+)"));
+
+  /**
+   * Outcome of the Maven inference. Ambiguous when a value could not be interpolated, or when
+   * nothing was found while a parent POM was not available locally; the version is then unknown
+   * and only the effective POM can tell.
+   */
+  @Value
+  public static class Result {
+    String version;
+    boolean ambiguous;
+  }
+
+  /**
+   * Infers the version of the root POM and of every reactor module listed under its modules,
+   * recursively, returning the highest; ambiguous when any of them is.
+   */
+  public static Result inferMaven(File repo) {
+    File pom = new File(repo, "pom.xml");
+    if (!pom.isFile()) return new Result(null, true);
+    try {
+      List<File> poms = new ArrayList<>();
+      collectReactorPoms(pom, poms, 0);
+      String highest = null;
+      for (File modulePom : poms) {
+        Result result = inferPom(modulePom, repo.getName());
+        if (result.isAmbiguous()) return result;
+        if (result.getVersion() != null
+            && (highest == null || Double.parseDouble(result.getVersion()) > Double.parseDouble(highest))) {
+          highest = result.getVersion();
+        }
+      }
+      return new Result(highest, false);
+    } catch (Exception e) {
+      log.warn("Could not read the POMs of {}: {}", repo.getName(), e.getMessage());
+      return new Result(null, true);
+    }
+  }
+
+  private static Result inferPom(File pom, String repoName) throws Exception {
+    Map<String, String> properties = new HashMap<>();
+    Map<String, String> compilerConfiguration = new HashMap<>();
+    boolean parentsComplete = loadPomChain(pom, properties, compilerConfiguration);
+
+    List<String> values = new ArrayList<>();
+    COMPILER_CONFIGURATION.forEach(name -> addIfPresent(values, compilerConfiguration.get(name)));
+    COMPILER_PROPERTIES.forEach(name -> addIfPresent(values, properties.get(name)));
+
+    Double highest = null;
+    for (String value : values) {
+      String interpolated = interpolate(value, properties);
+      Double version = parseVersion(interpolated);
+      if (version == null) {
+        log.info("Cannot infer the Java version of {} statically, '{}' does not resolve in {}", repoName, value, pom);
+        return new Result(null, true);
+      }
+      highest = highest == null ? version : Math.max(highest, version);
+    }
+    if (highest == null) {
+      return new Result(null, !parentsComplete);
+    }
+    return new Result(toSupportedJdk(highest), false);
+  }
+
+  private static void collectReactorPoms(File pom, List<File> poms, int depth) throws Exception {
+    poms.add(pom);
+    Element modules = child(parse(pom), "modules");
+    if (modules == null || depth >= MAX_MODULE_DEPTH) return;
+    for (Element module : children(modules)) {
+      File modulePom = new File(pom.getParentFile(), module.getTextContent().trim());
+      if (modulePom.isDirectory()) {
+        modulePom = new File(modulePom, "pom.xml");
+      }
+      if (modulePom.isFile()) {
+        collectReactorPoms(modulePom, poms, depth + 1);
+      }
+    }
+  }
+
+  /**
+   * Returns the Java version the JDK running Gradle must compile, declared by the Gradle build
+   * files of the root project and its included projects, the highest when they differ, or null
+   * when none is declared.
+   */
+  public static String inferGradle(File repo) {
+    List<File> projectDirs = new ArrayList<>(List.of(repo));
+    List<String> included = GradleSettingsParser.parseIncludedProjects(repo);
+    if (included != null) {
+      included.forEach(path -> projectDirs.add(GradleSettingsParser.toProjectDirectory(repo, path)));
+    }
+    Double highest = null;
+    for (File dir : projectDirs) {
+      for (String name : List.of("build.gradle", "build.gradle.kts")) {
+        Path buildFile = dir.toPath().resolve(name);
+        if (!Files.isRegularFile(buildFile)) continue;
+        try {
+          String content = Files.readString(buildFile);
+          for (Pattern declaration : GRADLE_DECLARATIONS) {
+            Matcher matcher = declaration.matcher(content);
+            while (matcher.find()) {
+              Double version = parseVersion(matcher.group(1).replace('_', '.'));
+              if (version != null) {
+                highest = highest == null ? version : Math.max(highest, version);
+              }
+            }
+          }
+        } catch (IOException e) {
+          log.debug("Could not read {}: {}", buildFile, e.getMessage());
+        }
+      }
+    }
+    return highest == null ? null : toSupportedJdk(highest);
+  }
+
+  /**
+   * Maps a source level to the lowest supported JDK compiling it: up to 8 -> "1.8", 9-11 -> "11.0",
+   * 12-17 -> "17.0", newer -> "21.0".
+   */
+  static String toSupportedJdk(double version) {
+    double feature = version < 2 ? Math.round((version - 1) * 10) : Math.floor(version);
+    if (feature <= 8) return "1.8";
+    if (feature <= 11) return "11.0";
+    if (feature <= 17) return "17.0";
+    return "21.0";
+  }
+
+  /**
+   * Merges the properties and compiler configuration of the POM and its parents, children
+   * overriding parents. Returns false when a parent could not be found locally.
+   */
+  private static boolean loadPomChain(File pom, Map<String, String> properties,
+                                      Map<String, String> compilerConfiguration) throws Exception {
+    File current = pom;
+    for (int depth = 0; current != null && depth < MAX_PARENT_DEPTH; depth++) {
+      Element project = parse(current);
+      Element parent = child(project, "parent");
+      String groupId = text(project, "groupId");
+      String version = text(project, "version");
+      if (parent != null) {
+        groupId = groupId != null ? groupId : text(parent, "groupId");
+        version = version != null ? version : text(parent, "version");
+      }
+      if (depth == 0) {
+        putIfAbsent(properties, "project.groupId", groupId);
+        putIfAbsent(properties, "project.artifactId", text(project, "artifactId"));
+        putIfAbsent(properties, "project.version", version);
+        if (parent != null) {
+          putIfAbsent(properties, "project.parent.version", text(parent, "version"));
+        }
+      }
+      Element pomProperties = child(project, "properties");
+      if (pomProperties != null) {
+        for (Element property : children(pomProperties)) {
+          properties.putIfAbsent(property.getTagName(), property.getTextContent().trim());
+        }
+      }
+      readCompilerConfiguration(project, compilerConfiguration);
+
+      if (parent == null) return true;
+      current = findParent(current, parent);
+      if (current == null) {
+        log.debug("Parent {}:{} of {} is not available locally", text(parent, "groupId"), text(parent, "artifactId"), pom);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void readCompilerConfiguration(Element project, Map<String, String> compilerConfiguration) {
+    Element build = child(project, "build");
+    if (build == null) return;
+    List<Element> pluginLists = new ArrayList<>();
+    pluginLists.add(child(build, "plugins"));
+    Element pluginManagement = child(build, "pluginManagement");
+    if (pluginManagement != null) {
+      pluginLists.add(child(pluginManagement, "plugins"));
+    }
+    for (Element plugins : pluginLists) {
+      if (plugins == null) continue;
+      for (Element plugin : children(plugins)) {
+        if (!"maven-compiler-plugin".equals(text(plugin, "artifactId"))) continue;
+        Element configuration = child(plugin, "configuration");
+        if (configuration == null) continue;
+        for (String name : COMPILER_CONFIGURATION) {
+          putIfAbsent(compilerConfiguration, name, text(configuration, name));
+        }
+      }
+    }
+  }
+
+  private static File findParent(File pom, Element parent) {
+    String relativePath = text(parent, "relativePath");
+    if (relativePath == null) relativePath = "../pom.xml";
+    if (!relativePath.isEmpty()) {
+      File candidate = new File(pom.getParentFile(), relativePath);
+      if (candidate.isDirectory()) candidate = new File(candidate, "pom.xml");
+      if (candidate.isFile() && sameArtifact(candidate, parent)) return candidate;
+    }
+    String groupId = text(parent, "groupId");
+    String artifactId = text(parent, "artifactId");
+    String version = text(parent, "version");
+    if (groupId == null || artifactId == null || version == null) return null;
+    Path local = Paths.get(getPropertyFromSetting(SourcesJarService.MAVEN_LOCAL_REPOSITORY,
+                                                  Paths.get(System.getProperty("user.home"), ".m2", "repository").toString()))
+        .resolve(groupId.replace('.', '/')).resolve(artifactId).resolve(version)
+        .resolve(artifactId + "-" + version + ".pom");
+    return Files.isRegularFile(local) ? local.toFile() : null;
+  }
+
+  private static boolean sameArtifact(File pom, Element parent) {
+    try {
+      return String.valueOf(text(parse(pom), "artifactId")).equals(text(parent, "artifactId"));
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  private static String interpolate(String value, Map<String, String> properties) {
+    String result = value;
+    for (int i = 0; i < 10 && result.contains("${"); i++) {
+      Matcher matcher = PLACEHOLDER.matcher(result);
+      StringBuilder replaced = new StringBuilder();
+      while (matcher.find()) {
+        String replacement = properties.get(matcher.group(1));
+        matcher.appendReplacement(replaced, Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+      }
+      matcher.appendTail(replaced);
+      if (replaced.toString().equals(result)) break;
+      result = replaced.toString();
+    }
+    return result;
+  }
+
+  private static Double parseVersion(String value) {
+    if (value == null || value.contains("${")) return null;
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static Element parse(File pom) throws Exception {
+    var factory = DocumentBuilderFactory.newInstance();
+    factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    return factory.newDocumentBuilder().parse(pom).getDocumentElement();
+  }
+
+  private static void addIfPresent(List<String> values, String value) {
+    if (value != null && !value.isBlank()) values.add(value);
+  }
+
+  private static void putIfAbsent(Map<String, String> map, String key, String value) {
+    if (value != null) map.putIfAbsent(key, value);
+  }
+
+  private static Element child(Element parent, String name) {
+    return children(parent).stream().filter(element -> name.equals(element.getTagName())).findFirst().orElse(null);
+  }
+
+  private static List<Element> children(Element parent) {
+    List<Element> result = new ArrayList<>();
+    for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node instanceof Element element) result.add(element);
+    }
+    return result;
+  }
+
+  private static String text(Element parent, String name) {
+    Element element = child(parent, name);
+    return element == null ? null : element.getTextContent().trim();
+  }
+}
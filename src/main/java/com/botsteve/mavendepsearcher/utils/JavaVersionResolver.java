@@ -35,7 +35,16 @@ public class JavaVersionResolver {
   }
 
 
+  /**
+   * Infers the Java version from the POMs, running help:effective-pom only when the static
+   * result is ambiguous.
+   */
   public static String getJavaVersionMaven(File repo) {
+    var inferred = JavaVersionInference.inferMaven(repo);
+    if (!inferred.isAmbiguous()) {
+      log.info("Java version of {} inferred from its POMs: {}", repo.getName(), inferred.getVersion());
+      return inferred.getVersion();
+    }
     var outputHandler = getMavenInvokerResult(repo.getAbsolutePath(),
                                               "", "help:effective-pom",
                                               "", System.getenv("JAVA_HOME"));
@@ -0,0 +1,226 @@
+package com.botsteve.mavendepsearcher.utils;
+
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gives the owner of a checked-out repository the permissions a build needs: read and write on
+ * files, read, write and traverse on directories, execute on the wrapper and shell scripts.
+ * Only paths lacking one of these are changed, and nothing is granted to group or others.
+ *
+ * The top levels of the tree are split into subtrees repaired in parallel, each walked with
+ * {@link Files#walkFileTree}. .git/objects is skipped: git keeps its objects read-only on purpose
+ * and builds never write there.
+ */
+@Slf4j
+public class PermissionRepair {
+
+  private static final boolean IS_POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+  /**
+   * Directory depth up to which subdirectories get a worker of their own.
+   */
+  private static final int SPLIT_DEPTH = 2;
+  private static final int MAX_REPORTED_PATHS = 20;
+  private static final Set<PosixFilePermission> FILE_PERMISSIONS =
+      EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+  private static final Set<PosixFilePermission> EXECUTABLE_PERMISSIONS =
+      EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+  private static final Set<String> EXECUTABLE_NAMES = Set.of("gradlew", "mvnw");
+
+  private static final ForkJoinPool WORKERS = new ForkJoinPool(
+      Math.max(2, Runtime.getRuntime().availableProcessors()),
+      pool -> {
+        var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("permission-repair-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+      },
+      null, false);
+
+  @Value
+  public static class Report {
+    long scanned;
+    long changed;
+    long failed;
+    /**
+     * The first changed paths, relative to the repaired directory.
+     */
+    List<String> changedPaths;
+    long durationMillis;
+
+    public String summary() {
+      String summary = String.format("changed %d of %d paths in %d ms", changed, scanned, durationMillis);
+      if (failed > 0) summary += String.format(", %d could not be changed", failed);
+      if (!changedPaths.isEmpty()) {
+        summary += ": " + String.join(", ", changedPaths) + (changed > changedPaths.size() ? ", ..." : "");
+      }
+      return summary;
+    }
+  }
+
+  public static Report repair(Path root) {
+    long start = System.currentTimeMillis();
+    Counters counters = new Counters(root);
+    if (Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) {
+      WORKERS.invoke(new RepairTree(root, 0, counters));
+    }
+    Report report = new Report(counters.scanned.sum(), counters.changed.sum(), counters.failed.sum(),
+                               List.copyOf(counters.changedPaths), System.currentTimeMillis() - start);
+    log.info("Permission repair of {} {}", root, report.summary());
+    return report;
+  }
+
+  /**
+   * Repairs a directory and its content, forking a worker per subdirectory down to
+   * {@link #SPLIT_DEPTH} and walking deeper trees in place.
+   */
+  private static class RepairTree extends RecursiveAction {
+
+    private final Path directory;
+    private final int depth;
+    private final Counters counters;
+
+    RepairTree(Path directory, int depth, Counters counters) {
+      this.directory = directory;
+      this.depth = depth;
+      this.counters = counters;
+    }
+
+    @Override
+    protected void compute() {
+      if (depth >= SPLIT_DEPTH) {
+        walk(directory, counters);
+        return;
+      }
+      repairPath(directory, true, counters);
+      List<RepairTree> subtrees = new ArrayList<>();
+      try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+        for (Path child : children) {
+          BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+          if (attributes.isDirectory()) {
+            if (!isGitObjects(child)) subtrees.add(new RepairTree(child, depth + 1, counters));
+          } else if (attributes.isRegularFile()) {
+            repairPath(child, false, counters);
+          }
+        }
+      } catch (IOException e) {
+        log.debug("Could not list {}: {}", directory, e.getMessage());
+        counters.failed.increment();
+      }
+      invokeAll(subtrees);
+    }
+  }
+
+  private static void walk(Path start, Counters counters) {
+    try {
+      Files.walkFileTree(start, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+          if (isGitObjects(dir)) return FileVisitResult.SKIP_SUBTREE;
+          repairPath(dir, true, counters);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (attrs.isRegularFile()) repairPath(file, false, counters);
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+          // A directory without read or traverse permission cannot be listed until repaired
+          if (exc instanceof AccessDeniedException && Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)
+              && repairPath(file, true, counters) && Files.isReadable(file)) {
+            walk(file, counters);
+          } else {
+            log.debug("Could not visit {}: {}", file, exc.getMessage());
+            counters.failed.increment();
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      log.debug("Could not walk {}: {}", start, e.getMessage());
+      counters.failed.increment();
+    }
+  }
+
+  /**
+   * Adds the missing owner permissions to the path; returns true when it was changed.
+   */
+  private static boolean repairPath(Path path, boolean directory, Counters counters) {
+    counters.scanned.increment();
+    try {
+      if (IS_POSIX) {
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+        Set<PosixFilePermission> needed = directory || isExecutable(path) ? EXECUTABLE_PERMISSIONS : FILE_PERMISSIONS;
+        if (permissions.containsAll(needed)) return false;
+        Set<PosixFilePermission> repaired = EnumSet.copyOf(needed);
+        repaired.addAll(permissions);
+        Files.setPosixFilePermissions(path, repaired);
+      } else {
+        if (Files.isWritable(path)) return false;
+        if (!path.toFile().setWritable(true)) throw new IOException("cannot make it writable");
+      }
+      counters.changed(path);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      log.debug("Could not repair the permissions of {}: {}", path, e.getMessage());
+      counters.failed.increment();
+      return false;
+    }
+  }
+
+  private static boolean isExecutable(Path file) {
+    String name = file.getFileName().toString();
+    return EXECUTABLE_NAMES.contains(name) || name.endsWith(".sh");
+  }
+
+  private static boolean isGitObjects(Path dir) {
+    Path parent = dir.getParent();
+    return dir.getFileName().toString().equals("objects") && parent != null
+           && parent.getFileName() != null && parent.getFileName().toString().equals(".git");
+  }
+
+  private static class Counters {
+    final Path root;
+    final LongAdder scanned = new LongAdder();
+    final LongAdder changed = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final Queue<String> changedPaths = new ConcurrentLinkedQueue<>();
+
+    Counters(Path root) {
+      this.root = root;
+    }
+
+    void changed(Path path) {
+      changed.increment();
+      log.debug("Repaired the permissions of {}", path);
+      if (changedPaths.size() < MAX_REPORTED_PATHS) {
+        String relative = root.relativize(path).toString();
+        changedPaths.add(relative.isEmpty() ? "." : relative);
+      }
+    }
+  }
+}
@@ -10,6 +10,7 @@ import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import com.botsteve.mavendepsearcher.model.RepositoryId;
 
 @Slf4j
 public class ProxyUtil {
@@ -20,12 +21,11 @@ public class ProxyUtil {
            "Source code url might be incorrect or if you are behind a proxy, check proxy env settings: HTTP_PROXY/http_proxy";
   }
 
+  /**
+   * Directory name of the repository, the same for every spelling of its URL.
+   */
   public static String getRepoNameFromUrl(String scmUrl) {
-    if (scmUrl != null) {
-      String[] parts = scmUrl.split("/");
-      return parts[parts.length - 1].replace(".git", "");
-    }
-    return "";
+    return scmUrl != null ? RepositoryId.parse(scmUrl).getName() : "";
   }
 
   public static void configureProxyIfEnvAvailable() throws URISyntaxException {
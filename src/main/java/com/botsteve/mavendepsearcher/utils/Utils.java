@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.botsteve.mavendepsearcher.exception.DepViewerException;
 import com.botsteve.mavendepsearcher.model.DependencyNode;
 import com.botsteve.mavendepsearcher.model.EnvSetting;
+import com.botsteve.mavendepsearcher.model.RepositoryId;
+import com.botsteve.mavendepsearcher.process.ProcessResult;
+import com.botsteve.mavendepsearcher.process.ProcessRunner;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
 
@@ -12,10 +15,15 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.*;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -27,6 +35,7 @@ public class Utils {
 
     public static final String DOWNLOADED_REPOS = "downloaded_repos";
     public static final String SETTINGS_FILE_PATH = "env-settings.properties";
+    public static final String APP_DATA = "app_data";
 
     public static List<String> parseModulesFromPom(File pomFile) throws Exception {
         List<String> modules = new ArrayList<>();
@@ -61,6 +70,55 @@ public class Utils {
         return properties.getProperty(property, "");
     }
 
+    /**
+     * Reads an optional setting, falling back to the given default when the settings file
+     * is missing or the value is blank.
+     */
+    public static String getPropertyFromSetting(String property, String defaultValue) {
+        try {
+            var value = loadSettings().getProperty(property, "");
+            return value.isBlank() ? defaultValue : value.trim();
+        } catch (DepViewerException e) {
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBooleanSetting(String property, boolean defaultValue) {
+        return Boolean.parseBoolean(getPropertyFromSetting(property, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Reads a positive integer setting; missing, malformed or non-positive values give the default.
+     */
+    public static int getIntSetting(String property, int defaultValue) {
+        try {
+            int value = Integer.parseInt(getPropertyFromSetting(property, String.valueOf(defaultValue)));
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for {}, using {}", property, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a time limit in minutes, 0 or less meaning no limit (null); missing or malformed
+     * values give the default.
+     */
+    public static Duration getMinutesLimitSetting(String property, int defaultMinutes) {
+        return parseMinutesLimit(property, getPropertyFromSetting(property, String.valueOf(defaultMinutes)), defaultMinutes);
+    }
+
+    static Duration parseMinutesLimit(String property, String value, int defaultMinutes) {
+        int minutes;
+        try {
+            minutes = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for {}, using {}", property, defaultMinutes);
+            minutes = defaultMinutes;
+        }
+        return minutes > 0 ? Duration.ofMinutes(minutes) : null;
+    }
+
     public static Properties loadSettings() {
         Properties properties = new Properties();
         try (InputStream is = new FileInputStream(SETTINGS_FILE_PATH)) {
@@ -74,7 +132,13 @@ public class Utils {
     }
 
     public static void saveSettings(ObservableList<EnvSetting> settingsList) {
+        // Merge into the existing file so keys that are not shown in the dialog are preserved
         Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(SETTINGS_FILE_PATH)) {
+            properties.load(is);
+        } catch (IOException e) {
+            log.debug("No existing settings to merge: {}", e.getMessage());
+        }
         settingsList.forEach(setting -> properties.setProperty(setting.getName(), setting.getValue()));
 
         try (OutputStream os = new FileOutputStream(SETTINGS_FILE_PATH)) {
@@ -148,18 +212,7 @@ public class Utils {
 
     public static String getRepositoriesPath(String projectName) {
         try {
-            Path codeSourcePath = Paths.get(Utils.class.getProtectionDomain().getCodeSource().getLocation().toURI());
-            Path baseDir;
-            
-            if (codeSourcePath.toString().endsWith(".jar")) {
-                baseDir = codeSourcePath.getParent();
-            } else {
-                // Assuming .../target/classes
-                baseDir = codeSourcePath.getParent().getParent(); 
-                if (baseDir == null) baseDir = Paths.get("."); // Fallback
-            }
-            
-            Path repoDir = baseDir.resolve(DOWNLOADED_REPOS);
+            Path repoDir = getBaseDirectory().resolve(DOWNLOADED_REPOS);
             if (projectName != null && !projectName.isEmpty()) {
                 repoDir = repoDir.resolve(projectName);
             }
@@ -173,6 +226,30 @@ public class Utils {
         }
     }
 
+    /**
+     * Returns (and creates) a directory under the application data folder, which sits next to
+     * downloaded_repos and holds caches that outlive a single project.
+     */
+    public static Path getAppDataPath(String child) {
+        try {
+            Path dir = getBaseDirectory().resolve(APP_DATA).resolve(child);
+            Files.createDirectories(dir);
+            return dir.toAbsolutePath();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to resolve application data path", e);
+        }
+    }
+
+    private static Path getBaseDirectory() throws URISyntaxException {
+        Path codeSourcePath = Paths.get(Utils.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (codeSourcePath.toString().endsWith(".jar")) {
+            return codeSourcePath.getParent();
+        }
+        // Assuming .../target/classes
+        Path baseDir = codeSourcePath.getParent().getParent();
+        return baseDir == null ? Paths.get(".") : baseDir; // Fallback
+    }
+
     public static String getRepositoriesPath() {
         return getRepositoriesPath(null);
     }
@@ -186,31 +263,26 @@ public class Utils {
         String wrapper = isWindows() ? "gradlew.bat" : "./gradlew";
         String[] command = {wrapper, "properties", "-Porg.gradle.java.installations.auto-download=false"};
 
-        // Start the process
-        ProcessBuilder processBuilder = new ProcessBuilder(command);
-        processBuilder.directory(projectDir);
-        processBuilder.redirectErrorStream(true);
-        processBuilder.environment().put("JAVA_HOME", jdkPath);
-        Process process = processBuilder.start();
-
-        // Read the output from the process
-        StringBuilder outputBuilder = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                outputBuilder.append(line).append("\n");
-            }
-        }
-
-        // Wait for the process to complete
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new DepViewerException("Command execution failed with exit code: " + exitCode);
+        // Keep only the first sourceCompatibility line instead of the whole output
+        AtomicReference<String> sourceCompatibility = new AtomicReference<>();
+        ProcessResult result = ProcessRunner.builder()
+                .name("gradle-properties")
+                .command(List.of(command))
+                .directory(projectDir)
+                .env("JAVA_HOME", jdkPath)
+                .timeout(Duration.ofMinutes(10))
+                .lineConsumer(line -> {
+                    if (sourceCompatibility.get() == null) {
+                        sourceCompatibility.set(extractGradleSourceCompatibility(line));
+                    }
+                })
+                .build()
+                .run();
+
+        if (!result.isSuccess()) {
+            throw new DepViewerException("Command execution failed with " + result.describeExit());
         }
-
-        // Extract sourceCompatibility from the output
-        String output = outputBuilder.toString();
-        return extractGradleSourceCompatibility(output);
+        return sourceCompatibility.get();
     }
 
     private static String extractGradleSourceCompatibility(String output) {
@@ -226,14 +298,34 @@ public class Utils {
         }
     }
 
+    /**
+     * Maps one SCM URL per repository to the highest selected version. URLs naming the same
+     * {@link RepositoryId} are merged, so a repository is downloaded once whatever its spelling;
+     * an https URL is preferred as the one to clone.
+     */
     public static Map<String, String> collectLatestVersions(Set<DependencyNode> urlVersions) {
-        return urlVersions.stream()
-                .collect(Collectors.toMap(
-                        DependencyNode::getScmUrl, // Key is the URL
-                        DependencyNode::getVersion, // Value is the version
-                        (existingVersion, newVersion) -> compareVersions(existingVersion, newVersion) > 0 ? existingVersion
-                                : newVersion
-                ));
+        Map<String, String> idToUrl = new HashMap<>();
+        Map<String, String> idToVersion = new HashMap<>();
+        for (DependencyNode node : urlVersions) {
+            if (node.getScmUrl() == null) continue;
+            String key = RepositoryId.parse(node.getScmUrl()).getKey();
+            idToUrl.merge(key, node.getScmUrl(), Utils::preferredScmUrl);
+            idToVersion.merge(key, node.getVersion(),
+                              (existingVersion, newVersion) -> compareVersions(existingVersion, newVersion) > 0 ? existingVersion
+                                      : newVersion);
+        }
+        Map<String, String> urlToVersion = new HashMap<>();
+        idToUrl.forEach((key, url) -> urlToVersion.put(url, idToVersion.get(key)));
+        return urlToVersion;
+    }
+
+    private static String preferredScmUrl(String url1, String url2) {
+        boolean https1 = url1.startsWith("https://");
+        boolean https2 = url2.startsWith("https://");
+        if (https1 != https2) {
+            return https1 ? url1 : url2;
+        }
+        return url1.compareTo(url2) <= 0 ? url1 : url2;
     }
 
     private static int compareVersions(String v1, String v2) {
@@ -260,6 +352,15 @@ public class Utils {
         return !binCheck || !libCheck;
     }
 
+    public static String sha256Hex(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new DepViewerException(e);
+        }
+    }
+
     public static String concatenateRepoNames(String header, Set<String> names) {
         StringBuilder sb = new StringBuilder();
         sb.append(header).append("\n");
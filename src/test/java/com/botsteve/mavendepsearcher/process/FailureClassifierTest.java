@@ -0,0 +1,78 @@
+package com.botsteve.mavendepsearcher.process;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FailureClassifierTest {
+
+    @Test
+    public void testFirstRecognisedCauseWins() {
+        FailureClassifier classifier = new FailureClassifier();
+        // Recovered problems are logged as warnings or debug output
+        classifier.accept("[WARNING] Could not transfer metadata from central: java.net.UnknownHostException: repo");
+        classifier.accept("[DEBUG] Failed to read artifact descriptor for org.demo:demo:jar:1.0");
+        classifier.accept("[INFO] BUILD FAILURE");
+        assertFalse(classifier.isHopeless());
+
+        classifier.accept("[ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.11.0:compile"
+                + " (default-compile): Fatal error compiling: error: invalid target release: 21 -> [Help 1]");
+        classifier.accept("[ERROR] Could not transfer artifact org.demo:demo:jar:1.0");
+
+        assertTrue(classifier.isHopeless());
+        assertEquals(FailureClassifier.Cause.WRONG_JDK, classifier.getCause());
+        assertTrue(classifier.getCause().isRetryWithOtherJdk());
+        assertTrue(classifier.getEvidence().contains("invalid target release: 21"));
+    }
+
+    @Test
+    public void testGradleFailures() {
+        FailureClassifier network = new FailureClassifier();
+        network.accept("FAILURE: Build failed with an exception.");
+        network.accept("* What went wrong:");
+        network.accept("> Could not resolve all files for configuration ':compileClasspath'.");
+        assertEquals(FailureClassifier.Cause.NETWORK, network.getCause());
+        assertFalse(network.getCause().isRetryWithOtherJdk());
+        assertFalse(network.isHopeless());
+
+        FailureClassifier toolchain = new FailureClassifier();
+        toolchain.accept("* What went wrong:");
+        toolchain.accept("   > Cannot find a Java installation on your machine matching this tasks requirements: {languageVersion=17}");
+        assertEquals(FailureClassifier.Cause.MISSING_TOOLCHAIN, toolchain.getCause());
+        assertTrue(toolchain.isHopeless());
+
+        FailureClassifier tests = new FailureClassifier();
+        tests.accept("* What went wrong:");
+        tests.accept("Execution failed for task ':core:test'.");
+        assertEquals(FailureClassifier.Cause.TEST_FAILURE, tests.getCause());
+
+        FailureClassifier passing = new FailureClassifier();
+        passing.accept("BUILD SUCCESSFUL in 12s");
+        assertNull(passing.getCause());
+    }
+
+    @Test
+    public void testPassingBuildMentioningErrorsIsNotStopped() {
+        FailureClassifier maven = new FailureClassifier();
+        maven.accept("[DEBUG] Could not resolve org.demo:demo:1.0 from secondary: Could not transfer artifact org.demo:demo:pom:1.0");
+        maven.accept("java.net.UnknownHostException: secondary.example.org");
+        maven.accept("[INFO] Running org.demo.HttpClientTest");
+        maven.accept("java.net.ConnectException: Connection refused");
+        maven.accept("Caused by: java.lang.UnsupportedClassVersionError: org/demo/Plugin has been compiled by a more recent version");
+        maven.accept("[ERROR] Connection refused while probing localhost:1, expected by the test");
+        maven.accept("[INFO] Tests run: 12, Failures: 0, Errors: 0, Skipped: 0");
+        maven.accept("[INFO] BUILD SUCCESS");
+        assertFalse(maven.isHopeless());
+
+        FailureClassifier gradle = new FailureClassifier();
+        gradle.accept("> Task :test");
+        gradle.accept("    java.net.ConnectException: Connection refused");
+        gradle.accept("Resource missing. [HTTP GET: https://secondary.example.org/org/demo/demo/1.0/demo-1.0.pom] UnknownHostException");
+        gradle.accept("Execution failed for task ':retry:test' was expected by RetryTest");
+        gradle.accept("BUILD SUCCESSFUL in 12s");
+        assertNull(gradle.getCause());
+    }
+}
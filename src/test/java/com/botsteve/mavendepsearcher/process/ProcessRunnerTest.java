@@ -0,0 +1,123 @@
+package com.botsteve.mavendepsearcher.process;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProcessRunnerTest {
+
+    private static final String JAVA = ProcessHandle.current().info().command().orElse("java");
+
+    @Test
+    public void testTailKeepsOnlyTheLastLines() {
+        OutputTail tail = new OutputTail(3);
+        for (int i = 1; i <= 5; i++) {
+            tail.add("line " + i);
+        }
+        tail.add("x".repeat(OutputTail.MAX_LINE_LENGTH + 10));
+
+        List<String> lines = tail.getLines();
+        assertEquals(List.of("line 4", "line 5"), lines.subList(0, 2));
+        assertEquals(OutputTail.MAX_LINE_LENGTH, lines.get(2).length());
+        assertEquals(6, tail.getTotalLines());
+    }
+
+    @Test
+    public void testOutputIsStreamedToConsumers() throws Exception {
+        List<String> lines = new ArrayList<>();
+        ProcessResult result = ProcessRunner.builder()
+                .command(List.of(JAVA, "-version"))
+                .lineConsumer(lines::add)
+                .timeout(Duration.ofMinutes(1))
+                .build()
+                .run();
+
+        assertTrue(result.isSuccess());
+        assertFalse(lines.isEmpty());
+        assertEquals(lines.size(), result.getLineCount());
+        assertEquals(lines.get(lines.size() - 1), result.getTail().getLines().get(result.getTail().getLines().size() - 1));
+    }
+
+    @Test
+    public void testTimeoutKillsTheProcess(@TempDir Path dir) throws Exception {
+        Path sleeper = dir.resolve("Sleeper.java");
+        Files.writeString(sleeper, "class Sleeper { public static void main(String[] a) throws Exception { Thread.sleep(60_000); } }");
+
+        ProcessResult result = ProcessRunner.builder()
+                .command(List.of(JAVA, sleeper.toString()))
+                .timeout(Duration.ofSeconds(3))
+                .build()
+                .run();
+
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isSuccess());
+        assertTrue(result.getWallTimeMillis() < 30_000);
+    }
+
+    @Test
+    public void testSilentProcessIsKilledAsStalled(@TempDir Path dir) throws Exception {
+        Path talker = dir.resolve("Talker.java");
+        Files.writeString(talker, "class Talker { public static void main(String[] a) throws Exception {"
+                + " System.out.println(\"working\"); Thread.sleep(60_000); } }");
+
+        ProcessResult result = ProcessRunner.builder()
+                .command(List.of(JAVA, talker.toString()))
+                .timeout(Duration.ofMinutes(1))
+                .inactivityTimeout(Duration.ofSeconds(3))
+                .build()
+                .run();
+
+        assertTrue(result.isStalled());
+        assertFalse(result.isTimedOut());
+        assertFalse(result.isSuccess());
+        assertTrue(result.getWallTimeMillis() < 30_000);
+    }
+
+    @Test
+    public void testOutputIsReadToTheEndAfterExit(@TempDir Path dir) throws Exception {
+        Path printer = dir.resolve("Printer.java");
+        Files.writeString(printer, "class Printer { public static void main(String[] a) {"
+                + " for (int i = 1; i <= 20000; i++) System.out.println(\"line \" + i); } }");
+
+        List<String> lines = new ArrayList<>();
+        ProcessResult result = ProcessRunner.builder()
+                .command(List.of(JAVA, printer.toString()))
+                .lineConsumer(lines::add)
+                .timeout(Duration.ofMinutes(1))
+                .build()
+                .run();
+
+        assertTrue(result.isSuccess());
+        assertEquals(20000, result.getLineCount());
+        assertEquals("line 20000", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void testSurvivingChildDoesNotBlockTheResult(@TempDir Path dir) throws Exception {
+        Path sleeper = dir.resolve("Sleeper.java");
+        Files.writeString(sleeper, "class Sleeper { public static void main(String[] a) throws Exception { Thread.sleep(20_000); } }");
+        Path forker = dir.resolve("Forker.java");
+        Files.writeString(forker, "class Forker { public static void main(String[] a) throws Exception {"
+                + " new ProcessBuilder(a[0], a[1]).inheritIO().start(); Thread.sleep(1_000);"
+                + " System.out.println(\"forked\"); } }");
+
+        ProcessResult result = ProcessRunner.builder()
+                .command(List.of(JAVA, forker.toString(), JAVA, sleeper.toString()))
+                .timeout(Duration.ofMinutes(1))
+                .build()
+                .run();
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of("forked"), result.getTail().getLines());
+        assertTrue(result.getWallTimeMillis() < 15_000);
+    }
+}
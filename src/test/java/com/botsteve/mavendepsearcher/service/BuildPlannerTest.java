@@ -0,0 +1,52 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BuildPlannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRepositoriesAreBuiltInDependencyWaves() throws IOException {
+        File core = pom("core", "<groupId>org.demo</groupId><artifactId>core-parent</artifactId>"
+                + "<modules><module>core-api</module></modules>");
+        pom("core/core-api", "<parent><groupId>org.demo</groupId><artifactId>core-parent</artifactId></parent>"
+                + "<artifactId>core-api</artifactId>");
+        File client = pom("client", "<groupId>org.demo</groupId><artifactId>client</artifactId><dependencies>"
+                + "<dependency><groupId>org.demo</groupId><artifactId>core-api</artifactId></dependency>"
+                + "<dependency><groupId>junit</groupId><artifactId>junit</artifactId></dependency></dependencies>");
+        File app = dir("app");
+        Files.writeString(app.toPath().resolve("build.gradle"),
+                "group = 'org.app'\ndependencies {\n  implementation 'org.demo:client:1.0'\n}\n");
+        File other = pom("other", "<groupId>org.other</groupId><artifactId>other</artifactId>");
+
+        BuildPlanner.Plan plan = BuildPlanner.plan(List.of(app, client, core, other));
+
+        assertEquals(List.of(List.of(core, other), List.of(client), List.of(app)), plan.getWaves());
+        assertTrue(plan.hasDependents(core));
+        assertTrue(plan.hasDependents(client));
+        assertFalse(plan.hasDependents(app));
+    }
+
+    private File pom(String path, String content) throws IOException {
+        File dir = dir(path);
+        Files.writeString(dir.toPath().resolve("pom.xml"), "<project>" + content + "</project>");
+        return dir;
+    }
+
+    private File dir(String path) throws IOException {
+        return Files.createDirectories(tempDir.resolve(path)).toFile();
+    }
+}
@@ -0,0 +1,48 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BuildResultLedgerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUnchangedInputsAreUpToDate() throws Exception {
+        File repo = tempDir.resolve("repo").toFile();
+        Path pom = repo.toPath().resolve("pom.xml");
+        try (Git git = Git.init().setDirectory(repo).call()) {
+            Files.writeString(pom, "<project/>");
+            git.add().addFilepattern("pom.xml").call();
+            git.commit().setMessage("initial").setAuthor("test", "test@example.com")
+                    .setCommitter("test", "test@example.com").setSign(false).call();
+        }
+
+        String fingerprint = BuildResultLedger.fingerprint(repo, "mvn clean package", "/jdk/17", List.of());
+        assertNotNull(fingerprint);
+        assertNotEquals(fingerprint, BuildResultLedger.fingerprint(repo, "mvn clean package", "/jdk/21", List.of()));
+        assertNotEquals(fingerprint, BuildResultLedger.fingerprint(repo, "mvn clean package", "/jdk/17", List.of("upstream")));
+
+        BuildResultLedger.load().recordSuccess(repo, fingerprint, "Built with Java 17");
+        assertEquals("Built with Java 17", BuildResultLedger.load().upToDateStatus(repo, fingerprint));
+
+        // A modified working tree always builds
+        Files.writeString(pom, "<project><modelVersion>4.0.0</modelVersion></project>");
+        assertNull(BuildResultLedger.fingerprint(repo, "mvn clean package", "/jdk/17", List.of()));
+
+        BuildResultLedger.load().forget(repo);
+        assertNull(BuildResultLedger.load().upToDateStatus(repo, fingerprint));
+    }
+}
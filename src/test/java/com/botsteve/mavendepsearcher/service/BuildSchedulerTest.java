@@ -0,0 +1,53 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BuildSchedulerTest {
+
+    @Test
+    public void testAdmissionIsBoundedByMemoryBudget() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicBoolean largeRunning = new AtomicBoolean();
+        AtomicInteger maxRunningWithLarge = new AtomicInteger();
+        List<BuildScheduler.Build<String>> builds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String name = "repo" + i;
+            boolean large = i == 5;
+            builds.add(new BuildScheduler.Build<>(name, large ? 5000 : 1000, () -> {
+                int started = running.incrementAndGet();
+                maxRunning.accumulateAndGet(started, Math::max);
+                if (large) largeRunning.set(true);
+                if (largeRunning.get()) maxRunningWithLarge.accumulateAndGet(started, Math::max);
+                Thread.sleep(100);
+                if (large) {
+                    maxRunningWithLarge.accumulateAndGet(running.get(), Math::max);
+                    largeRunning.set(false);
+                }
+                running.decrementAndGet();
+                if (name.equals("repo2")) throw new IllegalStateException("broken");
+                return name;
+            }));
+        }
+
+        List<BuildScheduler.Outcome<String>> outcomes = new BuildScheduler(4, 3000)
+                .run(builds, new BuildScheduler.Listener<>() {
+                }, () -> false);
+
+        assertEquals(6, outcomes.size());
+        assertEquals(1, outcomes.stream().filter(outcome -> !outcome.isSuccess()).count());
+        assertTrue(maxRunning.get() <= 3, "at most 3 builds of 1000 MB in 3000 MB, saw " + maxRunning.get());
+        assertTrue(maxRunning.get() > 1, "builds should run concurrently");
+        // The build larger than the budget still runs, alone
+        assertTrue(outcomes.stream().anyMatch(outcome -> outcome.getName().equals("repo5") && outcome.isSuccess()));
+        assertEquals(1, maxRunningWithLarge.get(), "the 5000 MB build should run alone");
+    }
+}
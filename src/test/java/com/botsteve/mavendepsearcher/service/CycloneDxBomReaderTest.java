@@ -0,0 +1,125 @@
+package com.botsteve.mavendepsearcher.service;
+
+import com.botsteve.mavendepsearcher.model.BomComponent;
+import com.botsteve.mavendepsearcher.model.CycloneDxBom;
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CycloneDxBomReaderTest {
+
+    private static final String BOM = """
+            {
+              "bomFormat": "CycloneDX",
+              "specVersion": "1.5",
+              "metadata": {
+                "tools": [{"vendor": "CycloneDX", "name": "cyclonedx-gradle-plugin"}],
+                "component": {"bom-ref": "pkg:maven/demo/app@1.0", "group": "demo", "name": "app", "version": "1.0"}
+              },
+              "components": [
+                {
+                  "bom-ref": "pkg:maven/com.google.guava/guava@33.0.0-jre",
+                  "group": "com.google.guava", "name": "guava", "version": "33.0.0-jre",
+                  "hashes": [{"alg": "SHA-1", "content": "abc"}],
+                  "licenses": [{"license": {"id": "Apache-2.0"}}],
+                  "externalReferences": [
+                    {"type": "website", "url": "https://github.com/google/guava"},
+                    {"type": "vcs", "url": "https://github.com/google/guava"}
+                  ],
+                  "properties": [{"name": "gradle:configuration", "value": "runtimeClasspath"}]
+                },
+                {
+                  "bom-ref": "pkg:maven/com.google.guava/failureaccess@1.0.2",
+                  "group": "com.google.guava", "name": "failureaccess", "version": "1.0.2", "scope": "required"
+                },
+                {
+                  "bom-ref": "pkg:maven/org.slf4j/slf4j-api@2.0.13",
+                  "group": "org.slf4j", "name": "slf4j-api", "version": "2.0.13"
+                }
+              ],
+              "dependencies": [
+                {"ref": "pkg:maven/demo/app@1.0", "dependsOn": ["pkg:maven/com.google.guava/guava@33.0.0-jre"]},
+                {"ref": "pkg:maven/com.google.guava/guava@33.0.0-jre", "dependsOn": ["pkg:maven/com.google.guava/failureaccess@1.0.2"]},
+                {"ref": "pkg:maven/com.google.guava/failureaccess@1.0.2", "dependsOn": ["pkg:maven/com.google.guava/guava@33.0.0-jre"]}
+              ]
+            }
+            """;
+
+    private static CycloneDxBom read() throws IOException {
+        return CycloneDxBomReader.read(new ByteArrayInputStream(BOM.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testReaderKeepsOnlyTheFieldsTheViewerUses() throws IOException {
+        CycloneDxBom bom = read();
+
+        assertEquals("pkg:maven/demo/app@1.0", bom.getRootRef());
+        assertEquals(3, bom.getComponents().size());
+        var guava = bom.getComponents().get("pkg:maven/com.google.guava/guava@33.0.0-jre");
+        assertEquals("com.google.guava:guava:33.0.0-jre", guava.getCoordinates());
+        assertEquals("https://github.com/google/guava", guava.getVcsUrl());
+        assertEquals("runtimeClasspath", guava.getProperties().get("gradle:configuration"));
+        assertEquals(List.of("pkg:maven/com.google.guava/failureaccess@1.0.2"),
+                     bom.getDependencies().get("pkg:maven/com.google.guava/guava@33.0.0-jre"));
+    }
+
+    @Test
+    public void testTreeStartsAtDirectDependenciesAndDropsCycles() throws IOException {
+        Set<DependencyNode> tree = CycloneDxBomReader.buildDependencyTree(read(), component ->
+                new DependencyNode(component.getGroup(), component.getName(), component.getVersion()));
+
+        // guava is the direct dependency, slf4j-api is unreached and kept at the top level
+        assertEquals(List.of("guava", "slf4j-api"), tree.stream().map(DependencyNode::getArtifactId).toList());
+        DependencyNode guava = tree.iterator().next();
+        assertEquals(1, guava.getChildren().size());
+        DependencyNode failureAccess = guava.getChildren().get(0);
+        assertEquals("failureaccess", failureAccess.getArtifactId());
+        assertNull(failureAccess.getChildren());
+    }
+
+    @Test
+    public void testSharedDependencyIsExpandedOnceWithANodePerOccurrence() {
+        CycloneDxBom bom = new CycloneDxBom();
+        bom.setRootRef("app");
+        for (String ref : List.of("app", "a", "b", "shared", "leaf", "direct")) {
+            BomComponent component = new BomComponent();
+            component.setName(ref);
+            component.setVersion("1.0");
+            bom.getComponents().put(ref, component);
+        }
+        bom.getDependencies().put("app", List.of("a", "b", "direct"));
+        bom.getDependencies().put("a", List.of("shared", "direct"));
+        bom.getDependencies().put("b", List.of("shared"));
+        bom.getDependencies().put("shared", List.of("leaf"));
+        bom.getDependencies().put("direct", List.of("leaf"));
+
+        Set<DependencyNode> tree = CycloneDxBomReader.buildDependencyTree(bom, component ->
+                new DependencyNode(component.getGroup(), component.getName(), component.getVersion()));
+
+        List<DependencyNode> direct = List.copyOf(tree);
+        assertEquals(List.of("a", "b", "direct"), direct.stream().map(DependencyNode::getArtifactId).toList());
+        DependencyNode first = direct.get(0).getChildren().get(0);
+        DependencyNode second = direct.get(1).getChildren().get(0);
+        assertEquals("leaf", first.getChildren().get(0).getArtifactId());
+        assertNull(first.getChildren().get(0).getChildren());
+        assertNull(second.getChildren());
+        // A direct dependency is expanded at the top level, even when reached before
+        assertEquals("leaf", direct.get(2).getChildren().get(0).getArtifactId());
+        assertNull(direct.get(0).getChildren().get(1).getChildren());
+        assertNotSame(first, second);
+
+        first.setSelected(true);
+        assertFalse(second.isSelected());
+        assertEquals(":shared:1.0", bom.getComponents().get("shared").getCoordinates());
+    }
+}
@@ -0,0 +1,66 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DownloadSchedulerTest {
+
+    @Test
+    public void testFailuresAreRetriedAndIsolated() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        DownloadScheduler scheduler = new DownloadScheduler(4, 4, 2, uri -> 0);
+
+        DownloadScheduler.Report<String> report = scheduler.run(
+                List.of("https://example.org/a/ok", "https://example.org/a/flaky", "https://example.org/a/broken"),
+                uri -> {
+                    int call = calls.computeIfAbsent(uri, k -> new AtomicInteger()).incrementAndGet();
+                    if (uri.endsWith("broken") || (uri.endsWith("flaky") && call == 1)) {
+                        throw new IllegalStateException("failed " + uri);
+                    }
+                    return "v1";
+                },
+                new DownloadScheduler.Listener<>() {
+                },
+                () -> false);
+
+        assertEquals(3, report.getOutcomes().size());
+        assertEquals(1, report.getFailed().size());
+        assertEquals("https://example.org/a/broken", report.getFailed().get(0).getUri());
+        assertEquals(2, calls.get("https://example.org/a/broken").get());
+        assertEquals(2, calls.get("https://example.org/a/flaky").get());
+        assertEquals(1, calls.get("https://example.org/a/ok").get());
+        assertFalse(report.isCancelled());
+    }
+
+    @Test
+    public void testConcurrencyPerHostIsBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        DownloadScheduler scheduler = new DownloadScheduler(8, 2, 1, uri -> 0);
+
+        DownloadScheduler.Report<String> report = scheduler.run(
+                List.of("https://github.com/o/a", "https://github.com/o/b", "git@github.com:o/c.git",
+                        "https://github.com/o/d", "https://github.com/o/e"),
+                uri -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(100);
+                    running.decrementAndGet();
+                    return uri;
+                },
+                new DownloadScheduler.Listener<>() {
+                },
+                () -> false);
+
+        assertTrue(report.getFailed().isEmpty());
+        assertEquals(5, report.getOutcomes().size());
+        assertTrue(maxRunning.get() <= 2, "at most 2 downloads per host, saw " + maxRunning.get());
+    }
+}
@@ -0,0 +1,62 @@
+package com.botsteve.mavendepsearcher.service;
+
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.model.GradleAnalysisCacheEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GradleAnalysisCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCachedTreeMatchesTheAnalysedOne() throws Exception {
+        Files.writeString(tempDir.resolve("build.gradle"), "plugins { id 'java' }");
+        String fingerprint = GradleAnalysisCache.fingerprint(tempDir.toFile(), "test");
+
+        DependencyNode shared = node("shared");
+        shared.setScmUrl("https://github.com/demo/shared");
+        shared.getChildren().add(node("leaf"));
+        DependencyNode a = node("a");
+        a.getChildren().add(shared);
+        DependencyNode b = node("b");
+        b.getChildren().add(node("shared"));
+        Set<DependencyNode> analysed = new LinkedHashSet<>(List.of(a, b, node("shared")));
+
+        GradleAnalysisCache.store(tempDir.toFile(), fingerprint, 1234, analysed);
+        GradleAnalysisCacheEntry entry = GradleAnalysisCache.load(tempDir.toFile(), fingerprint);
+        assertNotNull(entry);
+        assertEquals(1234, entry.getDurationMillis());
+        // Each dependency is stored once, whatever the number of paths to it
+        assertEquals(4, entry.getGraph().getComponents().size());
+
+        List<DependencyNode> cached = List.copyOf(GradleAnalysisCache.dependencies(entry));
+        assertEquals(List.of("a", "b", "shared"), cached.stream().map(DependencyNode::getArtifactId).toList());
+        // shared is a direct dependency too, so it is expanded at the top level
+        DependencyNode cachedShared = cached.get(2);
+        assertEquals("https://github.com/demo/shared", cachedShared.getScmUrl());
+        assertEquals("leaf", cachedShared.getChildren().get(0).getArtifactId());
+        assertNull(cached.get(0).getChildren().get(0).getChildren());
+        assertNull(cached.get(1).getChildren().get(0).getChildren());
+
+        assertNull(GradleAnalysisCache.load(tempDir.toFile(), "other"));
+    }
+
+    private static DependencyNode node(String artifactId) {
+        DependencyNode node = new DependencyNode("org.demo", artifactId, "1.0", "implementation");
+        node.setChildren(new ArrayList<>());
+        return node;
+    }
+}
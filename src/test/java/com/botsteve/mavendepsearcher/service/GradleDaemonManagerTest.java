@@ -0,0 +1,69 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class GradleDaemonManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWarmDaemonsAreReusedAndIdleVersionsEvicted() throws IOException {
+        File gradle85 = repo("a", "8.5");
+        File gradle76 = repo("b", "7.6.1");
+        File gradle84 = repo("c", "8.4");
+        List<String> stopped = new ArrayList<>();
+        GradleDaemonManager manager = new GradleDaemonManager(1024, 60_000,
+                (version, repo, jdk) -> stopped.add(version));
+
+        manager.acquire(gradle85, "/jdk/17", 512).close();
+        // Same version and JDK: the warm daemon is reused
+        manager.acquire(gradle85, "/jdk/17", 512).close();
+        assertEquals(512, manager.warmHeapMb());
+
+        GradleDaemonManager.Lease gradle76Build = manager.acquire(gradle76, "/jdk/11", 512);
+        assertEquals(1024, manager.warmHeapMb());
+        assertEquals(List.of(), stopped);
+
+        // No room left: the idle 8.5 daemons are stopped, not the busy 7.6.1 one
+        manager.acquire(gradle84, "/jdk/17", 512).close();
+        assertEquals(List.of("8.5"), stopped);
+        assertEquals(1024, manager.warmHeapMb());
+        gradle76Build.close();
+    }
+
+    @Test
+    public void testKilledBuildOnlyLosesTheDaemonItStarted() throws IOException {
+        File gradle85 = repo("a", "8.5");
+        GradleDaemonManager manager = new GradleDaemonManager(4096, 60_000, (version, repo, jdk) -> { });
+
+        manager.acquire(gradle85, "/jdk/17", 512).close();
+        // The reused daemon was started by an earlier build and survives the kill
+        manager.acquire(gradle85, "/jdk/17", 512).discard();
+        assertEquals(512, manager.warmHeapMb());
+
+        GradleDaemonManager.Lease reused = manager.acquire(gradle85, "/jdk/17", 512);
+        // All warm daemons are busy: this build starts its own, which dies with it
+        manager.acquire(gradle85, "/jdk/17", 512).discard();
+        assertEquals(512, manager.warmHeapMb());
+        reused.close();
+    }
+
+    private File repo(String name, String gradleVersion) throws IOException {
+        Path wrapper = tempDir.resolve(name).resolve("gradle/wrapper");
+        Files.createDirectories(wrapper);
+        Files.writeString(wrapper.resolve("gradle-wrapper.properties"),
+                "distributionUrl=https\\://services.gradle.org/distributions/gradle-" + gradleVersion + "-bin.zip\n");
+        return tempDir.resolve(name).toFile();
+    }
+}
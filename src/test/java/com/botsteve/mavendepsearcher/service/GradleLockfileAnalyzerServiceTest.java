@@ -0,0 +1,69 @@
+package com.botsteve.mavendepsearcher.service;
+
+import com.botsteve.mavendepsearcher.model.DependencyNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GradleLockfileAnalyzerServiceTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    public void testDependenciesAreReadFromAllProjectLockfiles() throws IOException {
+        Files.writeString(projectDir.resolve("settings.gradle"), "rootProject.name = 'demo'\ninclude 'core', ':app'\n");
+        Files.writeString(projectDir.resolve("build.gradle"), "");
+        Files.writeString(projectDir.resolve("gradle.lockfile"), """
+                # This is a Gradle generated file for dependency locking.
+                com.google.guava:guava:33.0.0-jre=compileClasspath,runtimeClasspath
+                org.junit.jupiter:junit-jupiter-api:5.10.2=testCompileClasspath,testRuntimeClasspath
+                empty=annotationProcessor
+                """);
+        Files.createDirectories(projectDir.resolve("core"));
+        Files.writeString(projectDir.resolve("core/build.gradle.kts"), "");
+        Files.writeString(projectDir.resolve("core/gradle.lockfile"), """
+                com.google.guava:guava:33.0.0-jre=runtimeClasspath
+                org.slf4j:slf4j-api:2.0.13=runtimeClasspath
+                empty=compileClasspath
+                """);
+        Files.createDirectories(projectDir.resolve("app"));
+
+        Set<DependencyNode> dependencies = GradleLockfileAnalyzerService.getDependencies(projectDir.toString());
+
+        assertEquals(3, dependencies.size());
+        DependencyNode guava = dependencies.stream()
+                .filter(node -> node.getArtifactId().equals("guava"))
+                .findFirst().orElseThrow();
+        assertEquals("implementation", guava.getScope());
+        assertTrue(dependencies.contains(new DependencyNode("org.slf4j", "slf4j-api", "2.0.13")));
+    }
+
+    @Test
+    public void testFastPathIsSkippedWhenAProjectIsNotLocked() throws IOException {
+        Files.writeString(projectDir.resolve("settings.gradle.kts"), "include(\"core\")\n");
+        Files.writeString(projectDir.resolve("build.gradle.kts"), "");
+        Files.writeString(projectDir.resolve("gradle.lockfile"), "empty=compileClasspath,runtimeClasspath\n");
+        Files.createDirectories(projectDir.resolve("core"));
+        Files.writeString(projectDir.resolve("core/build.gradle.kts"), "");
+
+        assertNull(GradleLockfileAnalyzerService.getDependencies(projectDir.toString()));
+    }
+
+    @Test
+    public void testFastPathIsSkippedForDynamicIncludes() throws IOException {
+        Files.writeString(projectDir.resolve("settings.gradle"), "file('modules').eachDir { include it.name }\n");
+        Files.writeString(projectDir.resolve("build.gradle"), "");
+        Files.writeString(projectDir.resolve("gradle.lockfile"), "empty=compileClasspath,runtimeClasspath\n");
+
+        assertNull(GradleLockfileAnalyzerService.getDependencies(projectDir.toString()));
+    }
+}
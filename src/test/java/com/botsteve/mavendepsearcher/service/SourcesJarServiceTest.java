@@ -0,0 +1,56 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SourcesJarServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSourcesJarIsExtracted() throws IOException {
+        Path jar = writeJar("demo-sources.jar", Map.of(
+                "com/example/Demo.java", "class Demo {}",
+                "com/example/util/Util.java", "class Util {}",
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n"));
+
+        SourcesJarService.extract(jar, tempDir.resolve("out"));
+
+        assertEquals("class Demo {}", Files.readString(tempDir.resolve("out/com/example/Demo.java")));
+        assertEquals("class Util {}", Files.readString(tempDir.resolve("out/com/example/util/Util.java")));
+    }
+
+    @Test
+    public void testEntriesOutsideTheTargetAreRejected() throws IOException {
+        Path jar = writeJar("evil-sources.jar", Map.of("../escaped.txt", "x"));
+
+        assertThrows(IOException.class, () -> SourcesJarService.extract(jar, tempDir.resolve("out")));
+        assertFalse(Files.exists(tempDir.resolve("escaped.txt")));
+    }
+
+    private Path writeJar(String name, Map<String, String> entries) throws IOException {
+        Path jar = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,39 @@
+package com.botsteve.mavendepsearcher.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TagResolverTest {
+
+    @Test
+    public void testVersionMustEndOnABoundary() {
+        assertTrue(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/v1.2.3"));
+        assertTrue(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/project-1.2.3.Final"));
+        assertTrue(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/rel/1_2_3"));
+        assertFalse(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/v1.2.30"));
+        assertFalse(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/v11.2.3"));
+        // A longer version with the same prefix is another release
+        assertFalse(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/v1.2.3.1"));
+        assertFalse(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/rel/1_2_3_1"));
+        assertFalse(TagResolver.isMatchingVersionTag("2.12.7", "refs/tags/jackson-databind-2.12.7.1"));
+        assertTrue(TagResolver.isMatchingVersionTag("2.12.7", "refs/tags/jackson-databind-2.12.7"));
+        assertTrue(TagResolver.isMatchingVersionTag("2.12.7.1", "refs/tags/jackson-databind-2.12.7.1"));
+        assertTrue(TagResolver.isMatchingVersionTag("1.2.3", "refs/tags/v1.2.3-RC1"));
+    }
+
+    @Test
+    public void testTemplatesAreDerivedAndApplied() {
+        assertEquals("v${version}", TagResolver.deriveTemplate("1.2.3", "v1.2.3"));
+        assertEquals("project-${version}.RELEASE", TagResolver.deriveTemplate("1.2.3", "project-1.2.3.RELEASE"));
+        assertEquals("rel/${version_}", TagResolver.deriveTemplate("1.2.3", "rel/1_2_3"));
+        assertNull(TagResolver.deriveTemplate("1.2.3", "v1.2.3-rc1"));
+        assertNull(TagResolver.deriveTemplate("1.2.3", "v1.2.30"));
+
+        assertEquals("rel/2_0_1", TagResolver.applyTemplate("rel/${version_}", "2.0.1"));
+        assertEquals("project-2.0.1.RELEASE", TagResolver.applyTemplate("project-${version}.RELEASE", "2.0.1"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.botsteve.mavendepsearcher.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JavaVersionInferenceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMavenVersionIsInterpolatedThroughLocalParent() throws IOException {
+        write("pom.xml", "<project><groupId>org.demo</groupId><artifactId>parent</artifactId>"
+                + "<properties><jdk.level>11</jdk.level><maven.compiler.release>${jdk.level}</maven.compiler.release>"
+                + "</properties><modules><module>child</module></modules></project>");
+        write("child/pom.xml", "<project><parent><groupId>org.demo</groupId><artifactId>parent</artifactId>"
+                + "<version>1</version></parent><artifactId>child</artifactId>"
+                + "<properties><jdk.level>17</jdk.level></properties></project>");
+        write("legacy/pom.xml", "<project><artifactId>legacy</artifactId><build><plugins><plugin>"
+                + "<artifactId>maven-compiler-plugin</artifactId><configuration><source>1.7</source>"
+                + "<target>1.7</target></configuration></plugin></plugins></build></project>");
+        write("remote/pom.xml", "<project><parent><groupId>org.unknown</groupId><artifactId>missing</artifactId>"
+                + "<version>1</version></parent><artifactId>remote</artifactId></project>");
+
+        JavaVersionInference.Result child = JavaVersionInference.inferMaven(tempDir.resolve("child").toFile());
+        assertFalse(child.isAmbiguous());
+        assertEquals("17.0", child.getVersion());
+        // The reactor module raises the version of the whole build
+        assertEquals("17.0", JavaVersionInference.inferMaven(tempDir.toFile()).getVersion());
+        assertEquals("1.8", JavaVersionInference.inferMaven(tempDir.resolve("legacy").toFile()).getVersion());
+        assertTrue(JavaVersionInference.inferMaven(tempDir.resolve("remote").toFile()).isAmbiguous());
+    }
+
+    @Test
+    public void testGradleDeclarationsAreRead() throws IOException {
+        write("app/settings.gradle", "include 'lib'\n");
+        write("app/build.gradle", "java {\n  sourceCompatibility = JavaVersion.VERSION_1_8\n}\n");
+        write("app/lib/build.gradle.kts", "tasks.withType<JavaCompile> {\n  options.release.set(11)\n}\n");
+        write("toolchain/build.gradle.kts", "java {\n  toolchain {\n    languageVersion.set(JavaLanguageVersion.of(21))\n  }\n}\n"
+                + "kotlin {\n  jvmToolchain(21)\n}\n");
+        write("plain/build.gradle", "apply plugin: 'java'\n");
+
+        assertEquals("11.0", JavaVersionInference.inferGradle(tempDir.resolve("app").toFile()));
+        // Toolchains are provisioned by Gradle, they do not constrain the JDK running it
+        assertNull(JavaVersionInference.inferGradle(tempDir.resolve("toolchain").toFile()));
+        assertNull(JavaVersionInference.inferGradle(tempDir.resolve("plain").toFile()));
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = tempDir.resolve(path).toFile();
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content);
+    }
+}
@@ -0,0 +1,45 @@
+package com.botsteve.mavendepsearcher.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PermissionRepairTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOnlyMissingOwnerPermissionsAreAdded() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path deep = Files.createDirectories(tempDir.resolve("a/b/c/d"));
+        Path readOnly = Files.writeString(deep.resolve("Generated.java"), "class Generated {}");
+        Files.setPosixFilePermissions(readOnly, PosixFilePermissions.fromString("r--r-----"));
+        Path wrapper = Files.writeString(tempDir.resolve("gradlew"), "#!/bin/sh");
+        Files.setPosixFilePermissions(wrapper, PosixFilePermissions.fromString("rw-r--r--"));
+        Path fine = Files.writeString(tempDir.resolve("a/pom.xml"), "<project/>");
+        Files.setPosixFilePermissions(fine, PosixFilePermissions.fromString("rw-------"));
+        Path object = Files.writeString(Files.createDirectories(tempDir.resolve(".git/objects/ab")).resolve("cdef"), "blob");
+        Files.setPosixFilePermissions(object, PosixFilePermissions.fromString("r--r--r--"));
+
+        PermissionRepair.Report report = PermissionRepair.repair(tempDir);
+
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(readOnly)));
+        assertEquals("rwxr--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(wrapper)));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(fine)));
+        assertEquals("r--r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(object)));
+        assertEquals(2, report.getChanged());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getChangedPaths().contains("gradlew"));
+
+        assertEquals(0, PermissionRepair.repair(tempDir).getChanged());
+    }
+}
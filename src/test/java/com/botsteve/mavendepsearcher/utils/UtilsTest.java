@@ -1,13 +1,16 @@
 package com.botsteve.mavendepsearcher.utils;
 
 import com.botsteve.mavendepsearcher.model.DependencyNode;
+import com.botsteve.mavendepsearcher.model.RepositoryId;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class UtilsTest {
 
@@ -37,4 +40,31 @@ public class UtilsTest {
         assertEquals("1.1.0", result.get("http://example.com/repo1"));
         assertEquals("2.0.0", result.get("http://example.com/repo2"));
     }
+
+    @Test
+    public void testCollectLatestVersionsMergesUrlSpellings() {
+        Set<DependencyNode> nodes = new HashSet<>();
+        String[] urls = {"http://github.com/x/y/", "https://github.com/x/y", "https://github.com/x/y.git",
+                         "scm:git:git@github.com:x/y", "git://github.com/x/y.git/tree/main"};
+        for (int i = 0; i < urls.length; i++) {
+            DependencyNode node = new DependencyNode();
+            node.setScmUrl(urls[i]);
+            node.setVersion("1." + i + ".0");
+            nodes.add(node);
+        }
+
+        Map<String, String> result = Utils.collectLatestVersions(nodes);
+
+        assertEquals(Map.of("https://github.com/x/y", "1.4.0"), result);
+        assertEquals("y", ProxyUtil.getRepoNameFromUrl("scm:git:git@github.com:x/y.git"));
+        assertEquals("gitlab.com/group/sub/repo", RepositoryId.parse("ssh://git@gitlab.com:22/group/sub/repo.git").getKey());
+    }
+
+    @Test
+    public void testMinutesLimitZeroMeansNoLimit() {
+        assertNull(Utils.parseMinutesLimit("BUILD_TIMEOUT_MINUTES", "0", 90));
+        assertNull(Utils.parseMinutesLimit("BUILD_TIMEOUT_MINUTES", "-1", 90));
+        assertEquals(Duration.ofMinutes(30), Utils.parseMinutesLimit("BUILD_TIMEOUT_MINUTES", " 30 ", 90));
+        assertEquals(Duration.ofMinutes(90), Utils.parseMinutesLimit("BUILD_TIMEOUT_MINUTES", "soon", 90));
+    }
 }